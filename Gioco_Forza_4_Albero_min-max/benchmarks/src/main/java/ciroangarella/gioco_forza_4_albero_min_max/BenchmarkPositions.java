@@ -0,0 +1,72 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+/**
+ * @class BenchmarkPositions
+ * @brief Posizioni di prova comuni a tutti i benchmark JMH.
+ *
+ * Ogni posizione è la sequenza delle colonne giocate a partire dal giocatore, con un
+ * numero dispari di mosse (tocca al bot), senza vincitore e senza mosse obbligate
+ * (`BitBoard.forcedMove` restituisce -1): la ricerca deve quindi lavorare davvero.
+ * I benchmark la scelgono con `@Param` usando il nome della fase di gioco.
+ */
+public class BenchmarkPositions {
+
+    public static final String OPENING = "24521";  ///< Apertura: 5 mosse.
+    public static final String MIDGAME = "54315514532640423";  ///< Centro partita: 17 mosse.
+    public static final String ENDGAME = "226423324324462415034631316";  ///< Vicino alla fine: 27 mosse, 15 celle vuote.
+
+    /**
+     * @brief Costruttore privato: la classe contiene solo costanti.
+     */
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * @brief Restituisce le mosse di una posizione a partire dal nome della fase.
+     *
+     * @param phase "OPENING", "MIDGAME" o "ENDGAME".
+     * @return La sequenza di colonne della posizione.
+     */
+    public static String moves(String phase) {
+        switch (phase) {
+            case "OPENING":
+                return OPENING;
+            case "MIDGAME":
+                return MIDGAME;
+            case "ENDGAME":
+                return ENDGAME;
+            default:
+                throw new IllegalArgumentException("Unknown position: " + phase);
+        }
+    }
+
+    /**
+     * @brief Costruisce la `BitBoard` di una posizione.
+     *
+     * @param phase "OPENING", "MIDGAME" o "ENDGAME".
+     * @return La griglia, con il bot di turno.
+     */
+    public static BitBoard board(String phase) {
+        return BitBoard.fromMoves(moves(phase));
+    }
+
+    /**
+     * @brief Costruisce la matrice dei proprietari di `GameModel` per una posizione.
+     *
+     * @param phase "OPENING", "MIDGAME" o "ENDGAME".
+     * @return La matrice (riga 0 in alto), 0 per le celle vuote.
+     */
+    public static int[][] cells(String phase) {
+        GameModel model = new GameModel();
+        for (char move : moves(phase).toCharArray()) {
+            model.play(move - '0');
+        }
+        int[][] cells = new int[GameModel.ROWS][GameModel.COLS];
+        for (int row = 0; row < GameModel.ROWS; row++) {
+            for (int col = 0; col < GameModel.COLS; col++) {
+                cells[row][col] = model.getOwner(row, col);
+            }
+        }
+        return cells;
+    }
+}
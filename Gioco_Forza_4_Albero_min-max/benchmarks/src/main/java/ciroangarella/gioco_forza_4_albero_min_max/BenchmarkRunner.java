@@ -0,0 +1,43 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @class BenchmarkRunner
+ * @brief Punto di ingresso del jar dei benchmark: JMH con i risultati in JSON.
+ *
+ * Accetta le stesse opzioni di JMH (`-h` per l'elenco). Se non sono indicati formato
+ * e file dei risultati, li scrive in JSON in `DEFAULT_RESULT_FILE`, pronti da
+ * confrontare tra due versioni del motore.
+ *
+ * Uso: `java -jar target/benchmarks.jar [ChooseMove] [-p depth=8] [-rff altro.json]`
+ */
+public class BenchmarkRunner {
+
+    public static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";  ///< File dei risultati predefinito.
+
+    /**
+     * @brief Avvia i benchmark selezionati dalla riga di comando (tutti se non indicati).
+     *
+     * @param args Opzioni di JMH.
+     * @throws CommandLineOptionException Se le opzioni non sono valide.
+     * @throws RunnerException Se un benchmark fallisce.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,125 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class ChooseMoveBenchmark
+ * @brief Misura una `chooseMove` completa a profondità fissa per ogni strategia.
+ *
+ * Libro delle aperture e risolutore di fine partita sono disattivati, così ogni
+ * strategia cerca davvero alla profondità indicata. Prima di ogni chiamata la tabella
+ * delle trasposizioni viene svuotata, altrimenti dalla seconda chiamata in poi la
+ * posizione sarebbe già risolta. `ParallelAttackStrategy` non espone le tabelle dei
+ * suoi thread, quindi viene ricreata prima di ogni chiamata sullo stesso pool: il suo
+ * tempo include l'allocazione delle tabelle.
+ *
+ * `CarefulStrategy` non è misurata: sceglie a caso tra `DEFENSE` e `ATTACK`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChooseMoveBenchmark {
+
+    @Param({"DEFENSE", "ATTACK", "PVS", "PARALLEL", "LAZY_SMP"})
+    public String strategyName;  ///< Strategia da misurare.
+
+    @Param({"OPENING", "MIDGAME", "ENDGAME"})
+    public String position;  ///< Fase di gioco della posizione di prova.
+
+    @Param({"6"})
+    public int depth;  ///< Profondità della ricerca dopo la mossa del bot.
+
+    @Param({"2"})
+    public int threads;  ///< Thread delle strategie parallele.
+
+    private InterfacePlayer player = new Player();  ///< Giocatore umano.
+    private InterfacePlayer bot = new Bot();  ///< Giocatore bot.
+    private BitBoard board;  ///< La posizione di prova.
+    private Strategy strategy;  ///< La strategia misurata.
+    private TranspositionTable table;  ///< Tabella da svuotare prima di ogni chiamata, o `null`.
+    private ForkJoinPool pool;  ///< Pool di `ParallelAttackStrategy`, creato una volta sola.
+
+    /**
+     * @brief Crea la strategia con libro e risolutore disattivati.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        board = BenchmarkPositions.board(position);
+        switch (strategyName) {
+            case "DEFENSE":
+                strategy = new DefenseStrategy(player, bot);
+                break;
+            case "ATTACK":
+            case "PVS":
+                AttackStrategy attack = strategyName.equals("PVS")
+                        ? new PvsStrategy(player, bot) : new AttackStrategy(player, bot);
+                attack.setDepth(depth);
+                attack.setOpeningBook(OpeningBook.EMPTY);
+                attack.setEndgameThreshold(0);
+                table = attack.getTranspositionTable();
+                strategy = attack;
+                break;
+            case "PARALLEL":
+                pool = new ForkJoinPool(threads);
+                break;
+            case "LAZY_SMP":
+                LazySmpStrategy smp = new LazySmpStrategy(player, bot, threads);
+                smp.setDepth(depth);
+                table = smp.getTranspositionTable();
+                strategy = smp;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategyName);
+        }
+    }
+
+    /**
+     * @brief Riporta la strategia a freddo prima di ogni chiamata.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        if (table != null) {
+            table.clear();
+        }
+        if (pool != null) {
+            ParallelAttackStrategy parallel = new ParallelAttackStrategy(player, bot, pool);
+            parallel.setDepth(depth);
+            strategy = parallel;
+        }
+    }
+
+    /**
+     * @brief Arresta i thread delle strategie parallele.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (strategy instanceof LazySmpStrategy) {
+            ((LazySmpStrategy) strategy).shutdown();
+        }
+    }
+
+    @Benchmark
+    public int chooseMove() {
+        return strategy.chooseMove(board);
+    }
+}
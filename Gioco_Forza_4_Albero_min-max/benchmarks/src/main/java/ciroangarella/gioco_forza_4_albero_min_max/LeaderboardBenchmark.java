@@ -0,0 +1,101 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class LeaderboardBenchmark
+ * @brief Misura l'aggiornamento e la lettura della classifica tramite `Leaderboard`.
+ *
+ * `addWin` è ciò che fa `EndGamePanel` alla fine di ogni partita vinta (la scrittura del
+ * file resta accodata al `PersistenceService`), `top` la pagina mostrata nel pannello.
+ * Entrambi non dovrebbero crescere linearmente con `players`. `addWinConcurrent` è
+ * `addWin` da otto thread insieme, come più partite che finiscono nello stesso momento.
+ * Il benchmark lavora su un file temporaneo, mai sulla classifica del gioco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int players;  ///< Giocatori in classifica.
+
+    private Path rankDir;  ///< Cartella temporanea della classifica.
+    private Leaderboard leaderboard;  ///< La classifica misurata.
+    private String[] ids;  ///< Gli ID dei giocatori.
+    private int next;  ///< Indice del prossimo vincitore in `addWin`.
+
+    /**
+     * @brief Riempie una classifica temporanea con `players` giocatori e vittorie casuali.
+     *
+     * @throws IOException Se la cartella temporanea non può essere creata.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        rankDir = Files.createTempDirectory("forza4-rank");
+        leaderboard = new Leaderboard(rankDir.resolve("rank.bin").toString());
+        ids = new String[players];
+        Random random = new Random(42);
+        for (int i = 0; i < players; i++) {
+            ids[i] = "player" + i;
+            int wins = 1 + random.nextInt(50);
+            for (int w = 0; w < wins; w++) {
+                leaderboard.addWin(ids[i]);
+            }
+        }
+        leaderboard.flush();
+    }
+
+    /**
+     * @brief Cancella la classifica e la cartella temporanea.
+     *
+     * @throws IOException Se i file non possono essere cancellati.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        leaderboard.flush();
+        Files.deleteIfExists(rankDir.resolve("rank.bin"));
+        Files.deleteIfExists(rankDir.resolve("rank.bin.tmp"));
+        Files.deleteIfExists(rankDir);
+    }
+
+    @Benchmark
+    public int addWin() {
+        next = (next + 7919) % players;
+        return leaderboard.addWin(ids[next]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int addWinConcurrent() {
+        return leaderboard.addWin(ids[ThreadLocalRandom.current().nextInt(players)]);
+    }
+
+    @Benchmark
+    public List<Winner> top() {
+        return leaderboard.top(0, EndGamePanel.RANK_PAGE_SIZE);
+    }
+}
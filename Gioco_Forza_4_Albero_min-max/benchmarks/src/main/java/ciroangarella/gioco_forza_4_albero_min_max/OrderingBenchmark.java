@@ -0,0 +1,94 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class OrderingBenchmark
+ * @brief Confronta l'ordine fisso delle colonne con quello adattivo (mosse killer e storia).
+ *
+ * Ogni chiamata esegue una ricerca nuova con la tabella delle trasposizioni svuotata:
+ * con `heuristicOrdering` = false le colonne si provano dal centro ai bordi (dopo la
+ * mossa della tabella), con `true` anche con mosse killer e storia. Oltre al tempo, il
+ * contatore `nodes` riporta i nodi visitati in ogni iterazione (da dividere per
+ * `searches`): è il valore che l'ordinamento deve ridurre.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderingBenchmark {
+
+    private static final int TABLE_MB = 64;  ///< Memoria della tabella usata dalla ricerca.
+
+    /**
+     * @brief Posizione di prova, come colonne giocate a partire dal giocatore.
+     *
+     * Hanno tutte un numero dispari di mosse, quindi tocca al bot.
+     */
+    @Param({"3", "33243", "3324425", "332442516", "01234560123", "3332221114445", "2344332255466", "323344215"})
+    public String moves;
+
+    @Param({"false", "true"})
+    public boolean heuristicOrdering;  ///< `true` per usare mosse killer e storia.
+
+    @Param({"10"})
+    public int depth;  ///< Profondità della ricerca.
+
+    private BitBoard board;  ///< La posizione di prova.
+    private TranspositionTable table;  ///< Tabella riusata (svuotata) da ogni ricerca.
+    private MinMaxSearch search;  ///< La ricerca della chiamata, con killer e storia vuoti.
+
+    /**
+     * @class Nodes
+     * @brief Nodi visitati e ricerche eseguite, riportati da JMH accanto al tempo.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Nodes {
+        public long nodes;  ///< Nodi visitati nell'iterazione.
+        public long searches;  ///< Ricerche eseguite nell'iterazione.
+    }
+
+    /**
+     * @brief Crea la posizione e la tabella.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        board = BitBoard.fromMoves(moves);
+        table = new TranspositionTable(TABLE_MB);
+    }
+
+    /**
+     * @brief Prepara una ricerca nuova, con la tabella vuota.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        table.clear();
+        search = new MinMaxSearch(1, 2, table);
+        search.setHeuristicOrdering(heuristicOrdering);
+    }
+
+    @Benchmark
+    public int searchRoot(Nodes counters) {
+        search.start(Long.MAX_VALUE);
+        int move = search.searchRoot(board, depth, TranspositionTable.NO_MOVE);
+        counters.nodes += search.getNodes();
+        counters.searches++;
+        return move;
+    }
+}
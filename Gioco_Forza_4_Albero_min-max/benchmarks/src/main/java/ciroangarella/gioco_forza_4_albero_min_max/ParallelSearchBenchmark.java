@@ -0,0 +1,106 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class ParallelSearchBenchmark
+ * @brief Misura la velocità della ricerca parallela rispetto a quella sequenziale.
+ *
+ * Per ogni posizione di prova esegue alla stessa profondità `AttackStrategy` (`threads`
+ * = 0, senza libro delle aperture) e `ParallelAttackStrategy` con 1, 2, 4 e 8 thread:
+ * lo speedup è il rapporto tra il tempo con `threads` = 0 e quello con più thread.
+ * Prima di ogni chiamata vengono svuotate la tabella di `AttackStrategy` o quelle dei
+ * thread di `ParallelAttackStrategy` (`clearTables`), quindi ogni ricerca parte a freddo.
+ * La strategia parallela viene creata una volta per trial: le tabelle dei thread vengono
+ * allocate durante il riscaldamento, non nelle chiamate misurate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    /**
+     * @brief Posizione di prova, come colonne giocate a partire dal giocatore.
+     *
+     * Hanno tutte un numero dispari di mosse, quindi tocca al bot.
+     */
+    @Param({"3", "33243", "3324425", "332442516"})
+    public String moves;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int threads;  ///< Thread di `ParallelAttackStrategy`, 0 per `AttackStrategy` sequenziale.
+
+    @Param({"12"})
+    public int depth;  ///< Profondità della ricerca dopo la mossa del bot.
+
+    private InterfacePlayer player = new Player();  ///< Giocatore umano.
+    private InterfacePlayer bot = new Bot();  ///< Giocatore bot.
+    private BitBoard board;  ///< La posizione di prova.
+    private Strategy strategy;  ///< La strategia misurata.
+    private AttackStrategy sequential;  ///< La strategia sequenziale, o `null`.
+    private ParallelAttackStrategy parallel;  ///< La strategia parallela, o `null`.
+    private ForkJoinPool pool;  ///< Pool di `ParallelAttackStrategy`, creato una volta sola.
+
+    /**
+     * @brief Crea la strategia sequenziale o quella parallela con il suo pool.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        board = BitBoard.fromMoves(moves);
+        if (threads == 0) {
+            sequential = new AttackStrategy(player, bot);
+            sequential.setDepth(depth);
+            sequential.setOpeningBook(OpeningBook.EMPTY); // Si misura la ricerca, non il libro
+            strategy = sequential;
+        } else {
+            pool = new ForkJoinPool(threads);
+            parallel = new ParallelAttackStrategy(player, bot, pool);
+            parallel.setDepth(depth);
+            strategy = parallel;
+        }
+    }
+
+    /**
+     * @brief Riporta la strategia a freddo prima di ogni chiamata.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        if (sequential != null) {
+            sequential.getTranspositionTable().clear();
+        } else {
+            parallel.clearTables();
+        }
+    }
+
+    /**
+     * @brief Arresta il pool della strategia parallela.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int chooseMove() {
+        return strategy.chooseMove(board);
+    }
+}
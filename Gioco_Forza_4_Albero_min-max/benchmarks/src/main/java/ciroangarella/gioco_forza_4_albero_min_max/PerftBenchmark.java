@@ -0,0 +1,56 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class PerftBenchmark
+ * @brief Misura `Perft` su `BitBoard`, sequenziale (`threads` = 0) e parallelo.
+ *
+ * Le foglie al secondo sono `perft(depth)` diviso il tempo per chiamata; i conteggi
+ * attesi sono in `PerftTest`. Con `depth` = 9 dalla griglia vuota le foglie sono
+ * 39394572.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    @Param({"OPENING", "MIDGAME"})
+    public String phase;  ///< Fase della partita della posizione di prova.
+
+    @Param({"0", "1", "4"})
+    public int threads;  ///< Thread di `perftParallel`, 0 per `perft` sequenziale.
+
+    @Param({"8"})
+    public int depth;  ///< Profondità del conteggio.
+
+    private BitBoard board;  ///< La posizione di prova.
+
+    /**
+     * @brief Prepara la posizione di prova.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = BenchmarkPositions.board(phase);
+    }
+
+    @Benchmark
+    public long perft() {
+        return threads == 0 ? Perft.perft(board, depth) : Perft.perftParallel(board, depth, threads);
+    }
+}
@@ -0,0 +1,66 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class PlayUndoBenchmark
+ * @brief Misura il costo di un singolo nodo della ricerca: `play`, valutazione e `undo`.
+ *
+ * `play` e `undo` aggiornano in modo incrementale maschere, chiavi di Zobrist e
+ * valutazione: è il lavoro fatto a ogni nodo prima ancora di esplorare i figli.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayUndoBenchmark {
+
+    @Param({"OPENING", "MIDGAME", "ENDGAME"})
+    public String position;  ///< Fase di gioco della posizione di prova.
+
+    private BitBoard board;  ///< La posizione, riportata allo stato iniziale da ogni `undo`.
+    private int column;  ///< Colonna giocata, la prima libera partendo dal centro.
+
+    /**
+     * @brief Prepara la posizione e sceglie la colonna da giocare.
+     */
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.board(position);
+        for (int j : BitBoard.CENTER_ORDER) {
+            if (board.canPlay(j)) {
+                column = j;
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public long playUndo() {
+        board.play(column, 2);
+        long hash = board.getHash();
+        board.undo(column);
+        return hash;
+    }
+
+    @Benchmark
+    public int playEvaluateUndo() {
+        board.play(column, 2);
+        int score = board.evaluate();
+        board.undo(column);
+        return score;
+    }
+}
@@ -0,0 +1,109 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class SaveHandlerBenchmark
+ * @brief Misura salvataggio e caricamento della griglia tramite `SaveHandler`.
+ *
+ * `journalMove` è il costo di ogni mossa reale sul thread della partita (stato in memoria
+ * e record accodato al `PersistenceService`, qui seguito dall'annullamento), `journalDurable`
+ * lo stesso fino al `force` del giornale, `loadGame` ciò che fa `GameGrid` all'apertura
+ * di una partita (rigioca le mosse salvate), `writeFile` la scrittura di una nuova
+ * istantanea. Il benchmark lavora su un file temporaneo (vedi
+ * `SaveHandler.SAVE_FILE_PROPERTY`), mai sul salvataggio del gioco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveHandlerBenchmark {
+
+    @Param({"OPENING", "MIDGAME", "ENDGAME"})
+    public String position;  ///< Fase di gioco della posizione salvata.
+
+    private Path saveDir;  ///< Cartella temporanea del salvataggio usato al posto di `img/save.bin`.
+    private SaveHandler saveHandler;  ///< Il gestore del salvataggio misurato.
+    private GameModel model;  ///< La partita salvata.
+    private int column;  ///< Una colonna non piena della posizione, per `journalMove`.
+
+    /**
+     * @brief Punta `SaveHandler` a un salvataggio vuoto in una cartella temporanea.
+     *
+     * @throws IOException Se la cartella temporanea non può essere creata.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        saveDir = Files.createTempDirectory("forza4-save");
+        System.setProperty(SaveHandler.SAVE_FILE_PROPERTY, saveDir.resolve("save.bin").toString());
+        saveHandler = SaveHandler.getInstance();
+        saveHandler.setName("playerId", "bench");
+        saveHandler.setName("strategy", "ATTACK");
+
+        model = new GameModel();
+        for (char move : BenchmarkPositions.moves(position).toCharArray()) {
+            model.play(move - '0');
+        }
+        saveHandler.saveGame(model);
+        saveHandler.flush();
+        column = 0;
+        while (!model.canPlay(column)) {
+            column++;
+        }
+    }
+
+    /**
+     * @brief Cancella il salvataggio e la cartella temporanea.
+     *
+     * @throws IOException Se i file non possono essere cancellati.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        saveHandler.flush();
+        Files.deleteIfExists(saveDir.resolve("save.bin"));
+        Files.deleteIfExists(saveDir.resolve("save.bin" + SaveHandler.JOURNAL_SUFFIX));
+        Files.deleteIfExists(saveDir);
+    }
+
+    @Benchmark
+    public void journalMove() {
+        saveHandler.tokenPlaced(0, column, model.getCurrentPlayer());
+        saveHandler.tokenRemoved(0, column);
+    }
+
+    @Benchmark
+    public void journalDurable() {
+        saveHandler.tokenPlaced(0, column, model.getCurrentPlayer());
+        saveHandler.tokenRemoved(0, column);
+        saveHandler.flush();
+    }
+
+    @Benchmark
+    public GameModel loadGame() {
+        return saveHandler.loadGame();
+    }
+
+    @Benchmark
+    public void writeFile() {
+        saveHandler.writeFile();
+        saveHandler.flush();
+    }
+}
@@ -0,0 +1,102 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class SearchAlgorithmBenchmark
+ * @brief Confronto A/B tra `AttackStrategy` (alfa-beta) e `PvsStrategy` (PVS).
+ *
+ * Le due strategie cercano alla stessa profondità con libro delle aperture e risolutore
+ * di fine partita disattivati, e con la tabella delle trasposizioni svuotata prima di
+ * ogni chiamata. Oltre al tempo, il contatore `nodes` riporta i nodi visitati in ogni
+ * iterazione (da dividere per `searches`). Che scelgano la stessa mossa con lo stesso
+ * punteggio lo verifica `PvsStrategyTest`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchAlgorithmBenchmark {
+
+    /**
+     * @brief Posizione di prova, come colonne giocate a partire dal giocatore.
+     *
+     * Hanno tutte un numero dispari di mosse, quindi tocca al bot.
+     */
+    @Param({"3", "33243", "3324425", "332442516", "01234560123", "3332221114445", "2344332255466", "323344215"})
+    public String moves;
+
+    @Param({"ALPHA_BETA", "PVS"})
+    public String algorithm;  ///< Algoritmo di ricerca da misurare.
+
+    @Param({"10"})
+    public int depth;  ///< Profondità della ricerca dopo la mossa del bot.
+
+    private BitBoard board;  ///< La posizione di prova.
+    private AttackStrategy strategy;  ///< La strategia misurata.
+
+    /**
+     * @class Nodes
+     * @brief Nodi visitati e ricerche eseguite, riportati da JMH accanto al tempo.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Nodes {
+        public long nodes;  ///< Nodi visitati nell'iterazione.
+        public long searches;  ///< Ricerche eseguite nell'iterazione.
+    }
+
+    /**
+     * @brief Crea la strategia con libro e risolutore disattivati.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        board = BitBoard.fromMoves(moves);
+        InterfacePlayer player = new Player();
+        InterfacePlayer bot = new Bot();
+        switch (algorithm) {
+            case "ALPHA_BETA":
+                strategy = new AttackStrategy(player, bot);
+                break;
+            case "PVS":
+                strategy = new PvsStrategy(player, bot);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        }
+        strategy.setDepth(depth);
+        strategy.setOpeningBook(OpeningBook.EMPTY);
+        strategy.setEndgameThreshold(0);
+    }
+
+    /**
+     * @brief Svuota la tabella prima di ogni chiamata.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        strategy.getTranspositionTable().clear();
+    }
+
+    @Benchmark
+    public int chooseMove(Nodes counters) {
+        int move = strategy.chooseMove(board);
+        counters.nodes += strategy.getNodes();
+        counters.searches++;
+        return move;
+    }
+}
@@ -0,0 +1,66 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class WinDetectionBenchmark
+ * @brief Misura il controllo della vittoria: maschere di bit, modello della partita e minacce.
+ *
+ * `bitBoard` è il controllo usato a ogni nodo della ricerca, `model` quello di
+ * `GameModel` dopo ogni mossa reale, `forcedMove` il pre-controllo tattico delle strategie.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class WinDetectionBenchmark {
+
+    @Param({"OPENING", "MIDGAME", "ENDGAME"})
+    public String position;  ///< Fase di gioco della posizione di prova.
+
+    private BitBoard board;  ///< La posizione come maschere di bit.
+    private int[][] cells;  ///< La stessa posizione come matrice di `GameModel`.
+    private int lastRow;  ///< Riga dell'ultima pedina giocata.
+    private int lastCol;  ///< Colonna dell'ultima pedina giocata.
+
+    /**
+     * @brief Prepara la posizione nelle due rappresentazioni.
+     */
+    @Setup
+    public void setUp() {
+        String moves = BenchmarkPositions.moves(position);
+        board = BenchmarkPositions.board(position);
+        cells = BenchmarkPositions.cells(position);
+        lastCol = moves.charAt(moves.length() - 1) - '0';
+        lastRow = BitBoard.ROWS - board.getHeight(lastCol);
+    }
+
+    @Benchmark
+    public int bitBoard() {
+        return board.checkForWin(1);
+    }
+
+    @Benchmark
+    public int model() {
+        // Le posizioni hanno un numero dispari di mosse: l'ultima è del giocatore
+        return GameModel.checkForWin(cells, lastRow, lastCol, 1);
+    }
+
+    @Benchmark
+    public int forcedMove() {
+        return board.forcedMove(2);
+    }
+}
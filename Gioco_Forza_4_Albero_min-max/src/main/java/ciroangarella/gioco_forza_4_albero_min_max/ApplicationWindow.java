@@ -18,10 +18,16 @@ public class ApplicationWindow extends JFrame implements WindowMediator {
      */
     SaveHandler saveHandler = SaveHandler.getInstance();
 
+    /**
+     * Partita mostrata nella finestra, o `null` se non ce n'è una in corso.
+     */
+    private NewGameWindow currentGame;
+
     /**
      * Costruttore della classe ApplicationWindow.
      * Imposta la finestra a schermo intero, non ridimensionabile e aggiunge un WindowListener
-     * per gestire la chiusura della finestra e il salvataggio dei dati tramite il SaveHandler.
+     * per gestire la chiusura della finestra. Il salvataggio è già aggiornato a ogni mossa:
+     * alla chiusura l'hook del `PersistenceService` completa le scritture ancora in coda.
      */
     public ApplicationWindow() {
         setTitle("Forza 4 Game");
@@ -34,10 +40,8 @@ public class ApplicationWindow extends JFrame implements WindowMediator {
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                if (saveHandler != null) {
-                    saveHandler.getInstance().writeFile(); // Salva i dati alla chiusura
-                }
-                System.exit(0); // Termina l'applicazione
+                closeCurrentGame(); // Ferma la ricerca del bot prima di salvare
+                System.exit(0); // Termina l'applicazione, l'hook del PersistenceService completa le scritture
             }
         });
     }
@@ -48,6 +52,7 @@ public class ApplicationWindow extends JFrame implements WindowMediator {
      */
     @Override
     public void showPlayerIdPanel(InterfacePlayer player) {
+        closeCurrentGame();
         // Aggiorna il contenuto della finestra con PlayerIdPanel
         getContentPane().removeAll();
         add(new PlayerIdPanel(player, this)); // Passa il mediatore e l'istanza del giocatore
@@ -61,6 +66,7 @@ public class ApplicationWindow extends JFrame implements WindowMediator {
      */
     @Override
     public void showGameModesPanel(InterfacePlayer player) {
+        closeCurrentGame();
         // Aggiorna il contenuto della finestra con GameModesPanel
         getContentPane().removeAll();
         add(new GameModesPanel(player, this)); // Passa il mediatore
@@ -77,8 +83,10 @@ public class ApplicationWindow extends JFrame implements WindowMediator {
     @Override
     public void newGame(InterfacePlayer player, InterfacePlayer bot, Strategy strategy) {
         // Aggiorna il contenuto della finestra con NewGameWindow
+        closeCurrentGame();
         getContentPane().removeAll();
-        add(new NewGameWindow(player, bot, strategy, this));
+        currentGame = new NewGameWindow(player, bot, strategy, this);
+        add(currentGame);
         revalidate();
         repaint();
     }
@@ -91,6 +99,7 @@ public class ApplicationWindow extends JFrame implements WindowMediator {
     public void endGame(InterfacePlayer winner) {
         // Aggiorna il contenuto della finestra con EndGamePanel
         getContentPane().removeAll();
+        currentGame = null;
         add(new EndGamePanel(winner));
         revalidate();
         repaint();
@@ -102,8 +111,20 @@ public class ApplicationWindow extends JFrame implements WindowMediator {
     public void endTieGame() {
         // Aggiorna il contenuto della finestra con EndGamePanel per il pareggio
         getContentPane().removeAll();
+        currentGame = null;
         add(new EndGamePanel(this));
         revalidate();
         repaint();
     }
+
+    /**
+     * Chiude la partita in corso, se c'è, così la ricerca del bot non prosegue
+     * in background dopo che la sua griglia è stata rimossa.
+     */
+    private void closeCurrentGame() {
+        if (currentGame != null) {
+            currentGame.close();
+            currentGame = null;
+        }
+    }
 }
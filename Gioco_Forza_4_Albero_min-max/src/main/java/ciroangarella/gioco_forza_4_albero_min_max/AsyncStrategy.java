@@ -0,0 +1,115 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @class AsyncStrategy
+ * @brief Esegue una `Strategy` su un pool di thread dedicato, fuori dal thread della GUI.
+ *
+ * `chooseMoveAsync` restituisce subito un `CompletableFuture` che si completa con la
+ * colonna scelta: il thread degli eventi Swing resta libero qualunque sia la profondità
+ * della ricerca. `cancel` interrompe la ricerca in corso in modo cooperativo (vedi
+ * `Strategy.cancelSearch`) e annulla il future, così il suo risultato non viene applicato.
+ * Anche il pondering si ferma dal pool con `stopPonderingAsync`: `stopPondering` aspetta
+ * la fine del thread in background e non va chiamato dal thread degli eventi Swing.
+ */
+public class AsyncStrategy implements Strategy {
+
+    /**
+     * @brief Thread dedicati alla ricerca, condivisi da tutte le partite.
+     *
+     * Sono daemon, quindi non impediscono la chiusura dell'applicazione.
+     */
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bot-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Strategy strategy;  ///< Strategia eseguita in background.
+    private CompletableFuture<Integer> pending;  ///< Ultima ricerca avviata, o `null`.
+
+    /**
+     * Costruttore della classe AsyncStrategy.
+     * 
+     * @param strategy La strategia da eseguire in background.
+     */
+    public AsyncStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Avvia la scelta della mossa sul pool dedicato. Una ricerca precedente ancora
+     * in corso viene annullata.
+     * 
+     * @param board La griglia di gioco attuale (viene copiata).
+     * @return Il future che si completa con la colonna scelta, o viene annullato da `cancel`.
+     */
+    public synchronized CompletableFuture<Integer> chooseMoveAsync(BitBoard board) {
+        cancel();
+        BitBoard copy = new BitBoard(board);
+        pending = CompletableFuture.supplyAsync(() -> strategy.chooseMove(copy), WORKERS);
+        return pending;
+    }
+
+    /**
+     * Annulla la ricerca in corso, se c'è: la strategia viene fermata al più presto
+     * e il future viene completato con una `CancellationException`.
+     */
+    public synchronized void cancel() {
+        if (pending != null && !pending.isDone()) {
+            strategy.cancelSearch();
+            pending.cancel(false);
+        }
+        pending = null;
+    }
+
+    /**
+     * Sceglie la mossa in modo sincrono, sul thread chiamante.
+     * 
+     * @param board La griglia di gioco attuale.
+     * @return La colonna scelta dalla strategia.
+     */
+    @Override
+    public int chooseMove(BitBoard board) {
+        return strategy.chooseMove(board);
+    }
+
+    /**
+     * Avvia il pondering della strategia.
+     * 
+     * @param board La griglia dopo la mossa del bot.
+     */
+    @Override
+    public void startPondering(BitBoard board) {
+        strategy.startPondering(board);
+    }
+
+    /**
+     * Interrompe il pondering della strategia e ne aspetta la fine, sul thread chiamante.
+     */
+    @Override
+    public void stopPondering() {
+        strategy.stopPondering();
+    }
+
+    /**
+     * Interrompe il pondering della strategia sul pool dedicato, senza bloccare il
+     * thread chiamante.
+     * 
+     * @return Il future che si completa quando il pondering è terminato.
+     */
+    public CompletableFuture<Void> stopPonderingAsync() {
+        return CompletableFuture.runAsync(strategy::stopPondering, WORKERS);
+    }
+
+    /**
+     * Interrompe la ricerca in corso della strategia.
+     */
+    @Override
+    public void cancelSearch() {
+        strategy.cancelSearch();
+    }
+}
@@ -1,22 +1,63 @@
 package ciroangarella.gioco_forza_4_albero_min_max;
 
-import javax.swing.ImageIcon;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @class AttackStrategy
  * @brief Implementazione di una strategia d'attacco per il gioco Forza 4.
  *
  * La classe AttackStrategy implementa l'interfaccia Strategy. Utilizza
- * l'algoritmo Minimax per scegliere la mossa migliore per il bot
- * durante il gioco.
+ * l'algoritmo Minimax con potatura alfa-beta per scegliere la mossa
+ * migliore per il bot durante il gioco. Verso la fine della partita passa
+ * all'`EndgameSolver`, che gioca in modo perfetto.
+ *
+ * Durante il turno del giocatore la strategia può cercare in anticipo (pondering) la
+ * risposta a ogni sua possibile mossa, a partire da quella prevista dalla tabella delle
+ * trasposizioni: se il giocatore sceglie una mossa già analizzata la risposta è immediata,
+ * altrimenti la ricerca riparte con la tabella già calda.
+ *
+ * Quando la mossa viene dal risolutore il risultato teorico è noto: `getProvenScore` e
+ * `getProvenPliesToEnd` dicono chi vince con il gioco perfetto e in quante mosse.
+ *
+ * Tempi, nodi, profondità e tagli di ogni mossa vengono raccolti in `SearchStats`,
+ * pubblicato via JMX con il nome della classe (ad esempio `name=PerfectStrategy`) e
+ * condiviso da tutte le partite con la stessa strategia.
  */
 public class AttackStrategy implements Strategy {
 
-    private int COLS = 7;  ///< Numero di colonne nella griglia di gioco.
-    private int ROWS = 6;  ///< Numero di righe nella griglia di gioco.
-    private ImageIcon emptyIcon;  ///< Icona che rappresenta una cella vuota nella griglia.
+    public static final int DEFAULT_TABLE_MB = 16;  ///< Memoria predefinita della tabella delle trasposizioni.
+    public static final int DEFAULT_DEPTH = 6;  ///< Profondità della ricerca quando non è impostato un tempo per mossa.
+
+    private static final int SOLVER_TIME_PERCENT = 50;  ///< Parte del tempo per mossa concessa al risolutore, in percentuale.
+
     private InterfacePlayer bot;  ///< Riferimento al giocatore bot.
     private InterfacePlayer player;  ///< Riferimento al giocatore umano.
+    protected MinMaxSearch search;  ///< Ricerca alfa-beta, con la sua tabella delle trasposizioni.
+    private EndgameSolver solver;  ///< Risolutore esatto usato quando restano poche celle vuote.
+    private OpeningBook book = OpeningBook.getInstance();  ///< Libro delle aperture consultato prima di cercare.
+    protected int depth = DEFAULT_DEPTH;  ///< Profondità della ricerca a profondità fissa.
+    protected long moveTimeMillis;  ///< Tempo massimo per mossa in millisecondi, 0 per la profondità fissa.
+    private int endgameThreshold = EndgameSolver.DEFAULT_THRESHOLD;  ///< Celle vuote da cui parte il risolutore esatto.
+    private volatile AtomicBoolean searchStop;  ///< Segnale di arresto della `chooseMove` in corso, `null` se non c'è.
+    private AtomicBoolean ponderStop;  ///< Segnale di arresto del pondering in corso, `null` se non c'è.
+    private AtomicBoolean runningStop;  ///< Segnale della ricerca che sta usando `search`: di `chooseMove` o del pondering.
+    private SearchStats stats;  ///< Statistiche delle mosse scelte, pubblicate via JMX.
+    private boolean searched;  ///< Indica se l'ultima `computeMove` ha avviato la ricerca alfa-beta.
+    private long moveStart;  ///< Istante (System.nanoTime) in cui è iniziata l'ultima `computeMove`.
+    private boolean solved;  ///< Indica se l'ultima `computeMove` ha scelto la mossa con il risolutore.
+    private volatile int provenScore;  ///< Punteggio esatto dell'ultima mossa scelta, dal punto di vista del bot.
+    private volatile int provenPlies = -1;  ///< Mosse alla fine della partita dopo l'ultima mossa scelta, -1 se non dimostrate.
+
+    private ExecutorService ponderExecutor;  ///< Thread del pondering, creato alla prima richiesta.
+    private Future<?> ponderTask;  ///< Pondering in corso, o `null`.
+    private Map<Long, Integer> ponderedMoves = new ConcurrentHashMap<>();  ///< Chiave della posizione -> risposta già calcolata.
+    private Map<Long, Integer> ponderedScores = new ConcurrentHashMap<>();  ///< Chiave della posizione -> punteggio esatto della risposta, se risolta.
 
     /**
      * Costruttore della classe AttackStrategy.
@@ -25,184 +66,408 @@ public class AttackStrategy implements Strategy {
      * @param bot Giocatore bot.
      */
     public AttackStrategy(InterfacePlayer player, InterfacePlayer bot) {
-        emptyIcon = new ImageIcon("src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/empty.png");
+        this(player, bot, DEFAULT_TABLE_MB);
+    }
+
+    /**
+     * Costruttore della classe AttackStrategy con una tabella delle trasposizioni
+     * di dimensione scelta.
+     * 
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     * @param tableSizeMb Memoria da dedicare alla tabella delle trasposizioni, in megabyte.
+     */
+    public AttackStrategy(InterfacePlayer player, InterfacePlayer bot, int tableSizeMb) {
+        this(player, bot, tableSizeMb, null);
+    }
+
+    /**
+     * Costruttore per le strategie che usano AttackStrategy al proprio interno, come
+     * `CarefulStrategy`: le statistiche vengono pubblicate con il nome della strategia
+     * esterna, senza mescolarsi con quelle di una vera AttackStrategy.
+     * 
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     * @param tableSizeMb Memoria da dedicare alla tabella delle trasposizioni, in megabyte.
+     * @param statsName Nome JMX delle statistiche, o `null` per il nome della classe.
+     */
+    AttackStrategy(InterfacePlayer player, InterfacePlayer bot, int tableSizeMb, String statsName) {
         this.bot = bot;
         this.player = player;
+        this.search = new MinMaxSearch(player.getPlayerCode(), bot.getPlayerCode(), new TranspositionTable(tableSizeMb));
+        this.solver = new EndgameSolver(new TranspositionTable(tableSizeMb));
+        this.stats = SearchStats.register(statsName != null ? statsName : getClass().getSimpleName());
     }
 
     /**
-     * Metodo per scegliere la mossa migliore per il bot utilizzando l'algoritmo Minimax.
+     * Restituisce la tabella delle trasposizioni, per consultarne il tasso di successo.
      * 
-     * @param grid La griglia di gioco attuale.
-     * @return L'indice della colonna in cui il bot posizionerà la sua pedina. Questo
-     * indice verrà usato per accedere all'array che contiene i pulsanti sulla parte 
-     * superiore dello schermo.
+     * @return La tabella usata dalla ricerca.
      */
-    public int chooseMove(Token grid[][]) {
-        int bestMove = 0;
-        int bestScore = -100;
-        int moveScore;
+    public TranspositionTable getTranspositionTable() {
+        return search.getTable();
+    }
 
-        // Loop per valutare ogni colonna disponibile
-        for (int j = 0; j < COLS; j++) {
-            // Verifica se la colonna è piena
-            if (grid[0][j].getOwner() != 0) {
-                continue;
-            }
+    /**
+     * Restituisce i nodi visitati dall'ultima ricerca alfa-beta. Le mosse lette dal
+     * libro o scelte dal risolutore non avviano la ricerca e non aggiornano il valore.
+     * 
+     * @return Il numero di nodi.
+     */
+    public long getNodes() {
+        return search.getNodes();
+    }
+
+    /**
+     * Restituisce le statistiche delle mosse scelte, le stesse pubblicate via JMX
+     * con il nome della classe della strategia.
+     * 
+     * @return Le statistiche della strategia.
+     */
+    public SearchStats getSearchStats() {
+        return stats;
+    }
 
-            GameGrid.placeToken(grid, j, bot);
-            moveScore = minmax(6, false, grid, player, bot);
-            undo(grid, j);
+    /**
+     * Restituisce il risultato teorico dimostrato dal risolutore per l'ultima mossa scelta.
+     * 
+     * Il punteggio è quello di `EndgameSolver`, dal punto di vista del bot: positivo se
+     * il bot vince con il gioco perfetto (tanto più grande quanto prima), 0 per il
+     * pareggio, negativo se perde. Vale solo se `getProvenPliesToEnd` non è -1.
+     * 
+     * @return Il punteggio esatto, 0 se l'ultima mossa non è stata risolta.
+     */
+    public int getProvenScore() {
+        return provenPlies < 0 ? 0 : provenScore;
+    }
 
-            // Aggiornamento della migliore mossa e del punteggio
-            if (moveScore > bestScore) {
-                bestScore = moveScore;
-                bestMove = j;
-            }
-        }
+    /**
+     * Restituisce quante mosse (di entrambi i giocatori, compresa quella del bot) mancano
+     * alla fine della partita con il gioco perfetto, a partire dalla posizione dell'ultima
+     * `chooseMove`: fino alla vittoria, alla sconfitta o, per il pareggio, a griglia piena.
+     * 
+     * @return Le mosse alla fine, -1 se l'ultima mossa non è stata scelta dal risolutore
+     * (ricerca, libro, mossa obbligata o risoluzione interrotta).
+     */
+    public int getProvenPliesToEnd() {
+        return provenPlies;
+    }
 
-        return bestMove;
+    /**
+     * Imposta il libro delle aperture da consultare prima di ogni ricerca.
+     * 
+     * @param book Il libro da usare (predefinito `OpeningBook.getInstance()`).
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
     }
 
     /**
-     * Algoritmo Minimax per scegliere la migliore mossa in base alla profondità dell'albero.
+     * Imposta la profondità usata quando non c'è un tempo per mossa.
      * 
-     * @param depth Profondità massima della ricerca.(un numero elevato crea un calo di perfomance )
-     * @param isBotTurn Indica se è il turno del bot.
-     * @param grid La griglia di gioco attuale.
-     * @param player Giocatore umano.
-     * @param bot bot.
-     * @return Il punteggio migliore trovato.
+     * @param depth Profondità della ricerca dopo la mossa del bot (predefinita `DEFAULT_DEPTH`).
      */
-    private int minmax(int depth, boolean isBotTurn, Token grid[][], InterfacePlayer player, InterfacePlayer bot) {
+    public void setDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be positive");
+        }
+        this.depth = depth;
+    }
 
-        // Caso base: profondità raggiunta o vittoria
-        if (depth == 0) {
-            return 0;
+    /**
+     * Imposta da quante celle vuote in giù la mossa viene scelta dal risolutore esatto.
+     * 
+     * Il costo del risolutore cresce molto in fretta con le celle vuote: con 18 resta
+     * sotto qualche decina di millisecondi, con 24 di solito sotto il mezzo secondo ma
+     * in alcune posizioni quasi un secondo. Con un tempo per mossa (`setMoveTime`) il
+     * risolutore ne ha a disposizione `SOLVER_TIME_PERCENT`%: se non finisce in tempo la
+     * mossa viene scelta dalla ricerca, entro la stessa scadenza. Senza tempo per mossa
+     * il risolutore non ha limiti.
+     * 
+     * @param cells Numero massimo di celle vuote (predefinito `EndgameSolver.DEFAULT_THRESHOLD`),
+     * 0 per non usare mai il risolutore.
+     */
+    public void setEndgameThreshold(int cells) {
+        if (cells < 0) {
+            throw new IllegalArgumentException("Endgame threshold must be non-negative");
         }
+        this.endgameThreshold = cells;
+    }
 
-        if (checkForWin(grid, player) == 1) {
-            return -depth;
-        } else if (checkForWin(grid, bot) == 1) {
-            return depth;
+    /**
+     * Imposta il tempo massimo per mossa.
+     * 
+     * Con un tempo positivo la ricerca procede per approfondimento iterativo (profondità
+     * 1, 2, 3, ...) finché il tempo non scade, e restituisce la mossa dell'ultima iterazione
+     * completata. Con 0 torna alla ricerca a profondità fissa `DEFAULT_DEPTH`.
+     * 
+     * @param millis Tempo per mossa in millisecondi.
+     */
+    public void setMoveTime(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Move time must be non-negative");
         }
+        this.moveTimeMillis = millis;
+    }
 
-        //---------------------------------------------------------------------
-        // Turno del bot
-        if (isBotTurn) {
-            int bestScore = -100;
-            for (int j = 0; j < COLS; j++) {
-                if (grid[0][j].getOwner() != 0) {
-                    continue;
-                }
-                GameGrid.placeToken(grid, j, bot);
-                bestScore = Math.max(bestScore, minmax(depth - 1, !isBotTurn, grid, player, bot));
-                undo(grid, j);
+    /**
+     * Metodo per scegliere la mossa migliore per il bot utilizzando l'algoritmo Minimax
+     * con potatura alfa-beta.
+     * 
+     * Se il pondering ha già analizzato la posizione la risposta è immediata. Una vittoria
+     * immediata o il blocco di quella dell'avversario (`BitBoard.forcedMove`) vengono
+     * giocati senza ricerca. Se la
+     * posizione è nel libro delle aperture la mossa viene letta da lì, senza ricerca;
+     * se restano al massimo `endgameThreshold` celle vuote la sceglie il risolutore esatto.
+     * Senza tempo per mossa la ricerca è a profondità fissa (`DEFAULT_DEPTH` se non
+     * impostata con `setDepth`); altrimenti
+     * la profondità cresce di uno a ogni iterazione finché il tempo non scade o la
+     * griglia non è esplorata fino in fondo.
+     * 
+     * @param board La griglia di gioco attuale.
+     * @return L'indice della colonna in cui il bot posizionerà la sua pedina. Questo
+     * indice verrà usato per accedere all'array che contiene i pulsanti sulla parte 
+     * superiore dello schermo.
+     */
+    public int chooseMove(BitBoard board) {
+        // Il segnale permette a `cancelSearch` di interrompere la ricerca da un altro thread;
+        // va creato prima di tutto, altrimenti un annullamento arrivato durante
+        // `stopPondering` andrebbe perso
+        AtomicBoolean stop = new AtomicBoolean();
+        searchStop = stop;
+        long startTime = System.nanoTime();
+        try {
+            stopPondering();
+            Integer pondered = ponderedMoves.get(board.getHash());
+            Integer ponderedScore = ponderedScores.get(board.getHash());
+            ponderedMoves.clear();
+            ponderedScores.clear();
+            if (pondered != null && board.canPlay(pondered)) {
+                setProvenResult(ponderedScore, board.getMoveCount());
+                stats.recordMove(System.nanoTime() - startTime);
+                return pondered;
             }
-            return bestScore;
-        } else {
-            // Turno del giocatore
-            int minScore = 100;
-            for (int j = 0; j < COLS; j++) {
-                if (grid[0][j].getOwner() != 0) {
-                    continue;
+
+            int move = computeMove(board, stop);
+            // Una ricerca annullata non è rappresentativa: la mossa verrà scartata
+            if (!stop.get()) {
+                setProvenResult(solved ? solver.getLastScore() : null, board.getMoveCount());
+                if (searched) {
+                    stats.recordSearch(System.nanoTime() - startTime, search);
+                } else {
+                    stats.recordMove(System.nanoTime() - startTime);
                 }
-                GameGrid.placeToken(grid, j, player);
-                minScore = Math.min(minScore, minmax(depth - 1, !isBotTurn, grid, player, bot));
-                undo(grid, j);
             }
-            return minScore;
+            return move;
+        } finally {
+            searchStop = null;
         }
     }
 
     /**
-     * Metodo per annullare una mossa precedentemente eseguita.
-     * Metdo usato solo dal bot tramite lo strategy durante la simulazione
-     * delle varie mosse
+     * Aggiorna il risultato restituito da `getProvenScore` e `getProvenPliesToEnd`.
      * 
-     * @param grid La griglia di gioco.
-     * @param col La colonna da cui rimuovere il token.
+     * @param score Il punteggio esatto della mossa scelta, `null` se non è stata risolta.
+     * @param moveCount Le pedine sulla griglia prima della mossa del bot.
      */
-    private void undo(Token grid[][], int col) {
-        for (int row = 0; row < ROWS; row++) {
-            if (grid[row][col].getOwner() != 0) {
-                grid[row][col].setOwner(0, emptyIcon);
-                break;
-            }
+    private void setProvenResult(Integer score, int moveCount) {
+        if (score == null) {
+            provenPlies = -1;
+        } else {
+            provenScore = score;
+            provenPlies = EndgameSolver.getPliesToEnd(score, moveCount);
         }
     }
 
     /**
-     * Metodo per controllare se il giocatore o il bot ha vinto la partita.
+     * Interrompe la `chooseMove` in corso su un altro thread, che termina al più presto
+     * restituendo una mossa da scartare.
+     */
+    @Override
+    public void cancelSearch() {
+        AtomicBoolean stop = searchStop;
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    /**
+     * Avvia il pondering: un thread in background calcola la risposta del bot a ogni
+     * possibile mossa del giocatore, finché non viene fermato.
      * 
-     * @param grid La griglia di gioco attuale.
-     * @param player Il giocatore per cui verificare la vittoria.
-     * @return 1 se il giocatore ha vinto, altrimenti 0.
+     * @param board La griglia dopo la mossa del bot.
      */
-    public int checkForWin(Token grid[][], InterfacePlayer player) {
-        // Controlla vittoria nelle righe
-        for (int row = 0; row < ROWS; row++) {
-            int rowWin = 0;
-            for (int col = 0; col < COLS; col++) {
-                if (grid[row][col].getOwner() == player.getPlayerCode()) {
-                    rowWin++;
-                    if (rowWin == 4) {
-                        return 1;
+    @Override
+    public synchronized void startPondering(BitBoard board) {
+        stopPondering();
+        ponderedMoves.clear();
+        ponderedScores.clear();
+        if (ponderExecutor == null) {
+            ponderExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        ponderStop = new AtomicBoolean();
+        BitBoard copy = new BitBoard(board);
+        AtomicBoolean stop = ponderStop;
+        ponderTask = ponderExecutor.submit(() -> ponder(copy, stop));
+    }
+
+    /**
+     * Ferma il pondering e aspetta che il thread in background abbia finito,
+     * così la ricerca (che non è thread-safe) torna libera.
+     */
+    @Override
+    public synchronized void stopPondering() {
+        if (ponderTask == null) {
+            return;
+        }
+        ponderStop.set(true);
+        try {
+            ponderTask.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+        ponderTask = null;
+        ponderStop = null;
+    }
+
+    /**
+     * Calcola in anticipo la risposta a ogni mossa del giocatore. La mossa prevista
+     * dalla tabella delle trasposizioni viene analizzata per prima.
+     * 
+     * @param board La griglia dopo la mossa del bot (una copia, modificata qui).
+     * @param stop Segnale di arresto impostato da `stopPondering`.
+     */
+    private void ponder(BitBoard board, AtomicBoolean stop) {
+        long entry = search.getTable().probe(board.getCanonicalHash());
+        int predicted = entry == 0 ? TranspositionTable.NO_MOVE
+                : board.canonicalColumn(TranspositionTable.getMove(entry));
+
+        for (int i = -1; i < BitBoard.COLS && !stop.get(); i++) {
+            int reply = i < 0 ? predicted : BitBoard.CENTER_ORDER[i];
+            if ((i >= 0 && reply == predicted) || reply == TranspositionTable.NO_MOVE || !board.canPlay(reply)) {
+                continue;
+            }
+            board.play(reply, player.getPlayerCode());
+            // Dopo una vittoria del giocatore o a griglia piena il bot non deve rispondere
+            if (board.checkForWin(player.getPlayerCode()) == 0 && !board.isFull()) {
+                int move = computeMove(board, stop);
+                if (!stop.get()) {
+                    ponderedMoves.put(board.getHash(), move);
+                    if (solved) {
+                        ponderedScores.put(board.getHash(), solver.getLastScore());
                     }
-                } else {
-                    rowWin = 0;
                 }
             }
+            board.undo(reply);
         }
+    }
 
-        // Controlla vittoria nelle colonne
-        for (int col = 0; col < COLS; col++) {
-            int colWin = 0;
-            for (int row = 0; row < ROWS; row++) {
-                if (grid[row][col].getOwner() == player.getPlayerCode()) {
-                    colWin++;
-                    if (colWin == 4) {
-                        return 1;
-                    }
-                } else {
-                    colWin = 0;
-                }
+    /**
+     * Sceglie la mossa senza consultare il pondering: libro, risolutore o ricerca.
+     * 
+     * @param board La griglia di gioco attuale.
+     * @param stop Il segnale di arresto di chi cerca: `chooseMove` o il pondering.
+     * @return L'indice della colonna in cui il bot posizionerà la sua pedina.
+     */
+    private int computeMove(BitBoard board, AtomicBoolean stop) {
+        moveStart = System.nanoTime();
+        runningStop = stop;
+        // Azzerati qui e non in `chooseMove`: prima di `stopPondering` il pondering
+        // potrebbe ancora avviare una ricerca e reimpostarli
+        searched = false;
+        solved = false;
+        int forcedMove = board.forcedMove(bot.getPlayerCode());
+        if (forcedMove >= 0) {
+            return forcedMove;
+        }
+
+        int bookMove = book.lookup(board);
+        if (bookMove >= 0 && board.canPlay(bookMove)) {
+            return bookMove;
+        }
+
+        int emptyCells = BitBoard.ROWS * BitBoard.COLS - board.getMoveCount();
+        if (emptyCells <= endgameThreshold) {
+            long solverDeadline = moveTimeMillis == 0 ? Long.MAX_VALUE
+                    : moveStart + moveTimeMillis * 1_000_000 / 100 * SOLVER_TIME_PERCENT;
+            int move = solver.chooseMove(board, stop, solverDeadline);
+            if (!solver.isAborted()) {
+                solved = true;
+                return move;
+            }
+            if (stop.get()) {
+                return move; // Annullata: la mossa verrà scartata
             }
+            // Tempo del risolutore scaduto: la ricerca usa quello che resta
         }
 
-        // Controlla vittoria nelle diagonali ascendenti
-        for (int row = 0; row < ROWS - 3; row++) {
-            for (int col = 0; col < COLS - 3; col++) {
-                int diagWin = 0;
-                for (int i = 0; i < 4; i++) {
-                    if (grid[row + i][col + i].getOwner() == player.getPlayerCode()) {
-                        diagWin++;
-                        if (diagWin == 4) {
-                            return 1;
-                        }
-                    } else {
-                        diagWin = 0;
-                    }
-                }
+        return searchMove(board);
+    }
+
+    /**
+     * Restituisce la scadenza della mossa in corso, calcolata dall'inizio di `computeMove`
+     * e quindi comprensiva del tempo già usato dal risolutore.
+     * 
+     * @return Istante (System.nanoTime) entro cui scegliere la mossa, `Long.MAX_VALUE`
+     * senza tempo per mossa.
+     */
+    protected long moveDeadline() {
+        return moveTimeMillis == 0 ? Long.MAX_VALUE : moveStart + moveTimeMillis * 1_000_000;
+    }
+
+    /**
+     * Prepara la ricerca per una nuova mossa. La ricerca si interrompe anche quando
+     * viene chiamato `stopPondering` (durante il pondering) o `cancelSearch`.
+     * 
+     * @param deadline Istante (System.nanoTime) oltre il quale interrompere la ricerca,
+     * `Long.MAX_VALUE` per nessun limite.
+     */
+    protected void startSearch(long deadline) {
+        searched = true;
+        search.start(deadline, runningStop);
+    }
+
+    /**
+     * Sceglie la mossa con la ricerca alfa-beta, a profondità fissa o per approfondimento
+     * iterativo. Le sottoclassi possono sostituire l'algoritmo di ricerca ridefinendo
+     * questo metodo, senza perdere libro delle aperture e risolutore di fine partita.
+     * 
+     * @param board La griglia di gioco attuale.
+     * @return L'indice della colonna in cui il bot posizionerà la sua pedina.
+     */
+    protected int searchMove(BitBoard board) {
+        if (moveTimeMillis == 0) {
+            startSearch(Long.MAX_VALUE);
+            return search.searchRoot(board, depth, TranspositionTable.NO_MOVE);
+        }
+
+        startSearch(moveDeadline());
+        int emptyCells = BitBoard.ROWS * BitBoard.COLS - board.getMoveCount();
+
+        // Mossa di riserva se neanche la prima iterazione riesce a terminare
+        int bestMove = 0;
+        for (int j : BitBoard.CENTER_ORDER) {
+            if (board.canPlay(j)) {
+                bestMove = j;
+                break;
             }
         }
 
-        // Controlla vittoria nelle diagonali discendenti
-        for (int row = 3; row < ROWS; row++) {
-            for (int col = 0; col < COLS - 3; col++) {
-                int diagWin = 0;
-                for (int i = 0; i < 4; i++) {
-                    if (grid[row - i][col + i].getOwner() == player.getPlayerCode()) {
-                        diagWin++;
-                        if (diagWin == 4) {
-                            return 1;
-                        }
-                    } else {
-                        diagWin = 0;
-                    }
-                }
+        // Dopo la mossa del bot restano emptyCells - 1 celle: oltre non serve cercare
+        for (int currentDepth = 1; currentDepth < emptyCells; currentDepth++) {
+            int move = search.searchRoot(board, currentDepth, bestMove);
+            if (search.isAborted()) {
+                break; // Iterazione incompleta: si tiene la mossa della precedente
             }
+            bestMove = move;
         }
-        return 0;
+
+        return bestMove;
     }
 }
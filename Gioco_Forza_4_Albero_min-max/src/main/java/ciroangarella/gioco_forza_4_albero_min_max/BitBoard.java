@@ -0,0 +1,465 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @class BitBoard
+ * @brief Rappresentazione compatta della griglia di gioco usata dagli algoritmi di ricerca.
+ *
+ * La posizione è memorizzata in due maschere `long`, una per il giocatore (codice 1) e una
+ * per il bot (codice 2), più l'altezza di ogni colonna. Ogni colonna occupa 7 bit: i 6 bit
+ * bassi sono le celle (dal basso verso l'alto), il settimo è una sentinella sempre vuota
+ * che evita che i controlli di vittoria "scavalchino" da una colonna all'altra.
+ *
+ * Al contrario della matrice di `Token`, questa classe non tocca componenti Swing, quindi
+ * le mosse simulate (`play`/`undo`) costano O(1). Ogni mossa aggiorna anche una chiave
+ * di Zobrist (e quella della posizione speculare, vedi `getCanonicalHash`), usata come
+ * indice dalla `TranspositionTable`, e la valutazione euristica della posizione
+ * (vedi `evaluate`).
+ */
+public class BitBoard {
+
+    public static final int ROWS = 6;  ///< Numero di righe della griglia di gioco.
+    public static final int COLS = 7;  ///< Numero di colonne della griglia di gioco.
+    private static final int H1 = ROWS + 1;  ///< Bit per colonna, compresa la sentinella.
+    static final int[] CENTER_ORDER = {3, 2, 4, 1, 5, 0, 6};  ///< Colonne dal centro ai bordi, per anticipare i tagli alfa-beta.
+
+    static final long BOTTOM_MASK;  ///< La cella più bassa di ogni colonna.
+    static final long BOARD_MASK;  ///< Tutte le celle della griglia, senza le sentinelle.
+    private static final int[] LINE_SHIFTS = {H1, H1 - 1, H1 + 1};  ///< Spostamenti orizzontale e diagonali tra celle adiacenti.
+
+    private static final long[][] ZOBRIST = new long[2][COLS * H1];  ///< Chiavi casuali per ogni coppia (giocatore, cella).
+
+    private static final int TWO_SCORE = 2;  ///< Valore di una finestra con due pedine e due celle vuote.
+    private static final int THREE_SCORE = 5;  ///< Valore di una finestra con tre pedine e una cella vuota.
+    private static final int PARITY_BONUS = 4;  ///< Bonus se la cella mancante è su una riga favorevole al giocatore.
+    private static final int CENTER_SCORE = 3;  ///< Valore di ogni pedina nella colonna centrale.
+
+    private static final long[] WINDOWS;  ///< Le 69 finestre di quattro celle allineate su cui si può vincere.
+    private static final int[][] CELL_WINDOWS = new int[COLS * H1][];  ///< Per ogni cella, le finestre che la contengono.
+
+    static {
+        long bottom = 0;
+        for (int col = 0; col < COLS; col++) {
+            bottom |= 1L << (col * H1);
+        }
+        BOTTOM_MASK = bottom;
+        BOARD_MASK = bottom * ((1L << ROWS) - 1);
+
+        // Seme fisso: la stessa posizione ha la stessa chiave in ogni esecuzione
+        Random random = new Random(0xF04A4L);
+        for (int i = 0; i < ZOBRIST.length; i++) {
+            for (int j = 0; j < ZOBRIST[i].length; j++) {
+                ZOBRIST[i][j] = random.nextLong();
+            }
+        }
+
+        // Finestre orizzontali, verticali e diagonali
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        long[] windows = new long[COLS * ROWS * directions.length];
+        int count = 0;
+        for (int[] direction : directions) {
+            for (int col = 0; col < COLS; col++) {
+                for (int height = 0; height < ROWS; height++) {
+                    int lastCol = col + 3 * direction[0];
+                    int lastHeight = height + 3 * direction[1];
+                    if (lastCol >= COLS || lastHeight < 0 || lastHeight >= ROWS) {
+                        continue;
+                    }
+                    long window = 0;
+                    for (int i = 0; i < 4; i++) {
+                        window |= 1L << ((col + i * direction[0]) * H1 + height + i * direction[1]);
+                    }
+                    windows[count++] = window;
+                }
+            }
+        }
+        WINDOWS = Arrays.copyOf(windows, count);
+
+        for (int cell = 0; cell < CELL_WINDOWS.length; cell++) {
+            int found = 0;
+            int[] ids = new int[16];
+            for (int w = 0; w < WINDOWS.length; w++) {
+                if ((WINDOWS[w] & (1L << cell)) != 0) {
+                    ids[found++] = w;
+                }
+            }
+            CELL_WINDOWS[cell] = Arrays.copyOf(ids, found);
+        }
+    }
+
+    private long mask1;  ///< Pedine del giocatore con codice 1.
+    private long mask2;  ///< Pedine del giocatore con codice 2.
+    private int[] heights;  ///< Numero di pedine presenti in ogni colonna.
+    private int moveCount;  ///< Numero di pedine presenti sulla griglia.
+    private long hash;  ///< Chiave di Zobrist della posizione, aggiornata a ogni mossa.
+    private long mirrorHash;  ///< Chiave di Zobrist della posizione riflessa da sinistra a destra.
+    private int[] windowCount1;  ///< Pedine del giocatore 1 in ogni finestra.
+    private int[] windowCount2;  ///< Pedine del giocatore 2 in ogni finestra.
+    private int evaluation;  ///< Valutazione euristica dal punto di vista del giocatore 1.
+
+    /**
+     * @brief Costruttore che crea una griglia vuota.
+     */
+    public BitBoard() {
+        heights = new int[COLS];
+        windowCount1 = new int[WINDOWS.length];
+        windowCount2 = new int[WINDOWS.length];
+    }
+
+    /**
+     * @brief Costruttore di copia.
+     *
+     * @param other La griglia da copiare.
+     */
+    public BitBoard(BitBoard other) {
+        mask1 = other.mask1;
+        mask2 = other.mask2;
+        heights = other.heights.clone();
+        moveCount = other.moveCount;
+        hash = other.hash;
+        mirrorHash = other.mirrorHash;
+        windowCount1 = other.windowCount1.clone();
+        windowCount2 = other.windowCount2.clone();
+        evaluation = other.evaluation;
+    }
+
+    /**
+     * @brief Crea una posizione a partire dalla sequenza delle colonne giocate.
+     *
+     * Il primo a muovere è il giocatore con codice 1, come nella partita reale.
+     *
+     * @param moves Le colonne giocate, una cifra da '0' a '6' per mossa (es. "3342").
+     * @return La posizione raggiunta.
+     */
+    public static BitBoard fromMoves(String moves) {
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < moves.length(); i++) {
+            int col = moves.charAt(i) - '0';
+            if (col < 0 || col >= COLS || !board.canPlay(col)) {
+                throw new IllegalArgumentException("Invalid move '" + moves.charAt(i) + "' at index " + i);
+            }
+            board.play(col, i % 2 == 0 ? 1 : 2);
+        }
+        return board;
+    }
+
+    /**
+     * @brief Indica se nella colonna c'è ancora spazio.
+     *
+     * @param col La colonna da controllare.
+     * @return `true` se la colonna non è piena.
+     */
+    public boolean canPlay(int col) {
+        return heights[col] < ROWS;
+    }
+
+    /**
+     * @brief Fa cadere una pedina nella colonna indicata.
+     *
+     * Il chiamante deve verificare con `canPlay` che la colonna non sia piena.
+     *
+     * @param col La colonna in cui inserire la pedina.
+     * @param playerCode Il codice del giocatore (1 o 2).
+     */
+    public void play(int col, int playerCode) {
+        int index = col * H1 + heights[col];
+        int mirrorIndex = (COLS - 1 - col) * H1 + heights[col];
+        long bit = 1L << index;
+        int[] windows = CELL_WINDOWS[index];
+
+        // Il valore delle finestre toccate va tolto prima della mossa e riaggiunto dopo
+        for (int w : windows) {
+            evaluation -= windowScore(w);
+        }
+        if (playerCode == 1) {
+            mask1 |= bit;
+            hash ^= ZOBRIST[0][index];
+            mirrorHash ^= ZOBRIST[0][mirrorIndex];
+            for (int w : windows) {
+                windowCount1[w]++;
+            }
+        } else {
+            mask2 |= bit;
+            hash ^= ZOBRIST[1][index];
+            mirrorHash ^= ZOBRIST[1][mirrorIndex];
+            for (int w : windows) {
+                windowCount2[w]++;
+            }
+        }
+        for (int w : windows) {
+            evaluation += windowScore(w);
+        }
+        if (col == COLS / 2) {
+            evaluation += playerCode == 1 ? CENTER_SCORE : -CENTER_SCORE;
+        }
+        heights[col]++;
+        moveCount++;
+    }
+
+    /**
+     * @brief Rimuove la pedina più alta della colonna indicata.
+     *
+     * @param col La colonna da cui togliere la pedina.
+     */
+    public void undo(int col) {
+        heights[col]--;
+        moveCount--;
+        int index = col * H1 + heights[col];
+        int mirrorIndex = (COLS - 1 - col) * H1 + heights[col];
+        long bit = 1L << index;
+        int[] windows = CELL_WINDOWS[index];
+
+        for (int w : windows) {
+            evaluation -= windowScore(w);
+        }
+        if ((mask1 & bit) != 0) {
+            mask1 &= ~bit;
+            hash ^= ZOBRIST[0][index];
+            mirrorHash ^= ZOBRIST[0][mirrorIndex];
+            for (int w : windows) {
+                windowCount1[w]--;
+            }
+            if (col == COLS / 2) {
+                evaluation -= CENTER_SCORE;
+            }
+        } else {
+            mask2 &= ~bit;
+            hash ^= ZOBRIST[1][index];
+            mirrorHash ^= ZOBRIST[1][mirrorIndex];
+            for (int w : windows) {
+                windowCount2[w]--;
+            }
+            if (col == COLS / 2) {
+                evaluation += CENTER_SCORE;
+            }
+        }
+        for (int w : windows) {
+            evaluation += windowScore(w);
+        }
+    }
+
+    /**
+     * @brief Restituisce la valutazione euristica della posizione.
+     *
+     * Somma, dal punto di vista del giocatore 1, il valore delle finestre di quattro celle
+     * ancora vincibili da un solo giocatore (due o tre pedine), il controllo della colonna
+     * centrale e le minacce sulle righe giuste: al giocatore 1, che muove per primo,
+     * servono le righe dispari (contando da 1 in basso), al giocatore 2 quelle pari.
+     * Il valore è aggiornato a ogni `play`/`undo`, quindi leggerlo costa O(1).
+     *
+     * @return Positivo se la posizione favorisce il giocatore 1, negativo se favorisce il 2.
+     */
+    public int evaluate() {
+        return evaluation;
+    }
+
+    /**
+     * @brief Calcola il valore di una finestra dal punto di vista del giocatore 1.
+     *
+     * @param w L'indice della finestra.
+     * @return Il contributo della finestra alla valutazione.
+     */
+    private int windowScore(int w) {
+        int count1 = windowCount1[w];
+        int count2 = windowCount2[w];
+        if (count1 > 0 && count2 > 0) {
+            return 0; // Finestra bloccata per entrambi
+        }
+        int count = count1 + count2;
+        int score = 0;
+        if (count == 2) {
+            score = TWO_SCORE;
+        } else if (count == 3) {
+            score = THREE_SCORE;
+            // Riga (da 0 in basso) della cella mancante: pari per il giocatore 1, dispari per il 2
+            int height = Long.numberOfTrailingZeros(WINDOWS[w] & ~(mask1 | mask2)) % H1;
+            if (height % 2 == (count1 > 0 ? 0 : 1)) {
+                score += PARITY_BONUS;
+            }
+        }
+        return count1 > 0 ? score : -score;
+    }
+
+    /**
+     * @brief Restituisce il proprietario di una cella, con le stesse coordinate della GUI.
+     *
+     * @param row La riga (0 in alto).
+     * @param col La colonna.
+     * @return 0 se la cella è vuota, altrimenti il codice del giocatore.
+     */
+    public int getOwner(int row, int col) {
+        long bit = 1L << (col * H1 + ROWS - 1 - row);
+        if ((mask1 & bit) != 0) {
+            return 1;
+        } else if ((mask2 & bit) != 0) {
+            return 2;
+        }
+        return 0;
+    }
+
+    /**
+     * @brief Restituisce la maschera delle pedine di un giocatore.
+     *
+     * @param playerCode Il codice del giocatore (1 o 2).
+     * @return La maschera di bit delle sue pedine.
+     */
+    public long getMask(int playerCode) {
+        return playerCode == 1 ? mask1 : mask2;
+    }
+
+    /**
+     * @brief Restituisce la chiave di Zobrist della posizione.
+     *
+     * @return La chiave a 64 bit, uguale per posizioni uguali comunque siano state raggiunte.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @brief Restituisce la chiave canonica della posizione.
+     *
+     * Il Forza 4 è simmetrico da sinistra a destra: una posizione e la sua immagine
+     * speculare hanno lo stesso valore e mosse migliori speculari. La chiave canonica è
+     * la minore tra la chiave di Zobrist della posizione e quella della sua riflessione,
+     * quindi le due immagini occupano una sola voce di tabelle e libri. Le mosse salvate
+     * con questa chiave vanno convertite con `canonicalColumn`.
+     *
+     * @return La chiave a 64 bit, uguale per una posizione e la sua riflessione.
+     */
+    public long getCanonicalHash() {
+        return Math.min(hash, mirrorHash);
+    }
+
+    /**
+     * @brief Converte una colonna tra l'orientamento della griglia e quello canonico.
+     *
+     * Se la chiave canonica è quella della riflessione la colonna viene specchiata,
+     * altrimenti resta la stessa; la conversione è identica nei due sensi. I valori
+     * fuori dalla griglia (per esempio "nessuna mossa") restano invariati.
+     *
+     * @param col La colonna da convertire.
+     * @return La colonna corrispondente nell'altro orientamento.
+     */
+    public int canonicalColumn(int col) {
+        if (mirrorHash < hash && col >= 0 && col < COLS) {
+            return COLS - 1 - col;
+        }
+        return col;
+    }
+
+    /**
+     * @brief Restituisce il numero di pedine presenti in una colonna.
+     *
+     * @param col La colonna.
+     * @return L'altezza della colonna.
+     */
+    public int getHeight(int col) {
+        return heights[col];
+    }
+
+    /**
+     * @brief Restituisce il numero di pedine presenti sulla griglia.
+     *
+     * @return Il numero di mosse giocate.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @brief Indica se la griglia è piena.
+     *
+     * @return `true` se tutte le celle sono occupate.
+     */
+    public boolean isFull() {
+        return moveCount == ROWS * COLS;
+    }
+
+    /**
+     * @brief Controlla se un giocatore ha allineato quattro pedine.
+     *
+     * @param playerCode Il codice del giocatore da controllare.
+     * @return 1 se il giocatore ha vinto, altrimenti 0.
+     */
+    public int checkForWin(int playerCode) {
+        return hasFour(getMask(playerCode)) ? 1 : 0;
+    }
+
+    /**
+     * @brief Cerca una mossa tattica obbligata, senza esplorare l'albero.
+     *
+     * Se il giocatore può allineare quattro pedine con la prossima mossa restituisce
+     * quella colonna; altrimenti, se l'avversario vincerebbe alla sua prossima mossa,
+     * restituisce la colonna da bloccare. Con più minacce avversarie immediate la
+     * partita è comunque persa e ne viene bloccata una.
+     *
+     * @param playerCode Il codice del giocatore di turno.
+     * @return La colonna obbligata, -1 se la posizione è tranquilla.
+     */
+    public int forcedMove(int playerCode) {
+        long occupied = mask1 | mask2;
+        long playable = (occupied + BOTTOM_MASK) & BOARD_MASK;
+
+        long moves = playable & winningCells(getMask(playerCode), occupied);
+        if (moves == 0) {
+            moves = playable & winningCells(getMask(3 - playerCode), occupied);
+        }
+        return moves == 0 ? -1 : Long.numberOfTrailingZeros(moves) / H1;
+    }
+
+    /**
+     * @brief Verifica con shift e AND se una maschera contiene quattro bit allineati.
+     *
+     * Le direzioni sono: verticale (1), orizzontale (7), diagonale ascendente (8)
+     * e diagonale discendente (6).
+     *
+     * @param mask La maschera da controllare.
+     * @return `true` se esiste un allineamento di quattro.
+     */
+    static boolean hasFour(long mask) {
+        long m = mask & (mask >> 1);
+        if ((m & (m >> 2)) != 0) {
+            return true;
+        }
+        m = mask & (mask >> H1);
+        if ((m & (m >> (2 * H1))) != 0) {
+            return true;
+        }
+        m = mask & (mask >> (H1 + 1));
+        if ((m & (m >> (2 * (H1 + 1)))) != 0) {
+            return true;
+        }
+        m = mask & (mask >> (H1 - 1));
+        return (m & (m >> (2 * (H1 - 1)))) != 0;
+    }
+
+    /**
+     * @brief Calcola le celle vuote che completerebbero un allineamento di quattro.
+     *
+     * Per ogni direzione cerca tre pedine allineate (o due più una separate da un buco)
+     * e segna la cella che manca. Le celle restituite possono anche non essere ancora
+     * giocabili: sono le minacce del giocatore, non solo le sue vittorie immediate.
+     *
+     * @param own La maschera delle pedine del giocatore.
+     * @param occupied La maschera di tutte le pedine sulla griglia.
+     * @return La maschera delle celle vincenti per il giocatore.
+     */
+    static long winningCells(long own, long occupied) {
+        // Verticale: solo sopra tre pedine
+        long cells = (own << 1) & (own << 2) & (own << 3);
+
+        // Orizzontale e diagonali
+        for (int shift : LINE_SHIFTS) {
+            long pair = (own << shift) & (own << (2 * shift));
+            cells |= pair & (own << (3 * shift));
+            cells |= pair & (own >>> shift);
+            pair = (own >>> shift) & (own >>> (2 * shift));
+            cells |= pair & (own << shift);
+            cells |= pair & (own >>> (3 * shift));
+        }
+        return cells & BOARD_MASK & ~occupied;
+    }
+}
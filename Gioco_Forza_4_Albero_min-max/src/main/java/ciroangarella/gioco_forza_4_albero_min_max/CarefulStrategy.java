@@ -1,6 +1,5 @@
 package ciroangarella.gioco_forza_4_albero_min_max;
 
-import javax.swing.ImageIcon;
 import java.util.Random;
 
 /**
@@ -12,9 +11,6 @@ import java.util.Random;
  */
 public class CarefulStrategy implements Strategy {
 
-    private int COLS = 7;  ///< Numero di colonne nella griglia di gioco.
-    private int ROWS = 6;  ///< Numero di righe nella griglia di gioco.
-    private ImageIcon emptyIcon;  ///< Icona che rappresenta una cella vuota nella griglia.
     private InterfacePlayer bot;  ///< Riferimento al bot che utilizza questa strategia.
     private InterfacePlayer player;  ///< Riferimento al giocatore avversario.
 
@@ -31,11 +27,11 @@ public class CarefulStrategy implements Strategy {
      * @param bot Il bot che utilizza questa strategia.
      */
     public CarefulStrategy(InterfacePlayer player, InterfacePlayer bot) {
-        emptyIcon = new ImageIcon("src/main/java/ciroangarella/gioco_forza_4_albero_min/max/img/empty.png");
         this.bot = bot;
         this.player = player;
         
-        attackStrategy = new AttackStrategy(player, bot);
+        // Statistiche JMX con il nome di questa strategia, separate da quelle di AttackStrategy
+        attackStrategy = new AttackStrategy(player, bot, AttackStrategy.DEFAULT_TABLE_MB, getClass().getSimpleName());
         defenseStrategy = new DefenseStrategy(player, bot);
          
         random = new Random();
@@ -47,17 +43,43 @@ public class CarefulStrategy implements Strategy {
      * Il 50% delle volte sceglie una mossa offensiva `AttackStrategy`,
      * e nel restante 50% delle volte sceglie una `DefenseStrategy`.
      * 
-     * @param grid La griglia di gioco, rappresentata come una matrice di oggetti `Token`.
+     * @param board La griglia di gioco.
      * @return L'indice della colonna in cui posizionare il token del bot.
      */
     @Override
-    public int chooseMove(Token grid[][]) {
+    public int chooseMove(BitBoard board) {
         int rand = random.nextInt(100);  // Genera un numero casuale tra 0 e 99.
         
         if (rand >= 0 && rand < 50) {
-            return attackStrategy.chooseMove(grid);  // Usa la strategia di attacco.
+            return attackStrategy.chooseMove(board);  // Usa la strategia di attacco.
         } else {
-            return defenseStrategy.chooseMove(grid);  // Usa la strategia di difesa.
+            return defenseStrategy.chooseMove(board);  // Usa la strategia di difesa.
         }
     }
+
+    /**
+     * Avvia la ricerca in anticipo della strategia di attacco, l'unica che cerca.
+     * 
+     * @param board La griglia dopo la mossa del bot.
+     */
+    @Override
+    public void startPondering(BitBoard board) {
+        attackStrategy.startPondering(board);
+    }
+
+    /**
+     * Interrompe la ricerca in anticipo della strategia di attacco.
+     */
+    @Override
+    public void stopPondering() {
+        attackStrategy.stopPondering();
+    }
+
+    /**
+     * Interrompe la ricerca in corso della strategia di attacco.
+     */
+    @Override
+    public void cancelSearch() {
+        attackStrategy.cancelSearch();
+    }
 }
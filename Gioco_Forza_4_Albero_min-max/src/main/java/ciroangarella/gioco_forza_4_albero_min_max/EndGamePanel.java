@@ -3,26 +3,20 @@ package ciroangarella.gioco_forza_4_albero_min_max;
 import javax.swing.*;
 import java.awt.*;
 import java.util.List;
-import java.util.ArrayList;
-import java.io.*;
-import java.util.Comparator;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * @class EndGamePanel
  * @brief Gestisce la visualizzazione del pannello di fine gioco e aggiorna la classifica dei vincitori.
  * 
  * Il pannello visualizza il vincitore o un pareggio, salva lo stato della griglia e aggiorna
- * la classifica in un file.
+ * la classifica tramite `Leaderboard`, mostrandone le prime `RANK_PAGE_SIZE` posizioni.
  */
 public class EndGamePanel extends JPanel {
 
+    public static final int RANK_PAGE_SIZE = 100; ///< Numero di posizioni della classifica mostrate nel pannello.
+
     private Winner winner; ///< Oggetto per memorizzare i dati del vincitore.
     SaveHandler saveHandler = SaveHandler.getInstance(); ///< Gestore per il salvataggio dello stato della griglia.
-  
-    private static final int ROWS = 6; ///< Numero di righe nella griglia di gioco.
-    private static final int COLS = 7; ///< Numero di colonne nella griglia di gioco.
 
     /**
      * Costruttore che crea il pannello di fine gioco per un giocatore vincitore.
@@ -32,15 +26,7 @@ public class EndGamePanel extends JPanel {
     public EndGamePanel(InterfacePlayer player) {
         
         //imposta tutta la griglia di gioco a vuota, per inizare una nuova partita
-        for(int i = 0; i < ROWS; i++){
-            for(int j = 0; j < COLS; j++){
-                try {
-                    saveHandler.setOwner(0, i, j); // Imposta il proprietario della cella a vuoto.
-                } catch (IOException ex) {
-                    ex.printStackTrace();
-                }
-            }
-        }
+        saveHandler.clearGame();
         
         saveHandler.writeFile(); // Salva lo stato della griglia su file.
        
@@ -69,31 +55,10 @@ public class EndGamePanel extends JPanel {
         rankedPanel.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
         rankedPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        // Lettura dei vincitori precedenti dal file
-        List<Winner> rank = new ArrayList<>();
-        readWinners(rank); // Metodo per leggere i vincitori da un file.
-
-        // Verifica se il vincitore attuale esiste già nella classifica
-        boolean isPlayerFound = false;
-        int foundedPlayerIndex = 0;
-
-        for (int i = 0; i < rank.size(); i++) {
-            if (rank.get(i).getId().equals(winner.getId())) {
-                isPlayerFound = true;
-                foundedPlayerIndex = i;
-                break;
-            }
-        }
-
-        if (isPlayerFound) {
-            rank.get(foundedPlayerIndex).addWin(); // Aumenta le vittorie del giocatore esistente.
-        } else {
-            winner.setFirstWin(); // Imposta la prima vittoria per il nuovo vincitore.
-            rank.add(winner);
-        }
-
-        rank.sort(Comparator.comparingInt(Winner::getWin).reversed()); // Ordina la classifica per numero di vittorie.
-        overwriteRankFile(rank); // Sovrascrive il file della classifica.
+        // Aggiunge la vittoria e legge le prime posizioni della classifica
+        Leaderboard leaderboard = Leaderboard.getInstance();
+        leaderboard.addWin(winner.getId());
+        List<Winner> rank = leaderboard.top(0, RANK_PAGE_SIZE);
 
         displayRankedPlayer(rank, contentPanel); // Mostra i giocatori classificati nel pannello.
 
@@ -108,15 +73,7 @@ public class EndGamePanel extends JPanel {
     public EndGamePanel(WindowMediator mediator) {
         
         //svuota la griglia
-        for(int i = 0; i < ROWS; i++){
-            for(int j = 0; j < COLS; j++){
-                try {
-                    saveHandler.setOwner(0, i, j); // Imposta il proprietario della cella a vuoto.
-                } catch (IOException ex) {
-                    ex.printStackTrace();
-                }
-            }
-        }
+        saveHandler.clearGame();
          
         saveHandler.writeFile(); // Salva lo stato della griglia su file.
 
@@ -137,82 +94,14 @@ public class EndGamePanel extends JPanel {
         rankedPanel.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
         rankedPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        // Lettura dei vincitori precedenti dal file
-        List<Winner> rank = new ArrayList<>();
-        readWinners(rank);
-
-        rank.sort(Comparator.comparingInt(Winner::getWin).reversed()); // Ordina la classifica per vittorie.
+        // Prime posizioni della classifica, già ordinate per vittorie
+        List<Winner> rank = Leaderboard.getInstance().top(0, RANK_PAGE_SIZE);
 
         displayRankedPlayer(rank, contentPanel); // Mostra i giocatori classificati.
 
         this.add(rankedPanel, BorderLayout.CENTER); // Aggiungi il pannello centrale.
     }
 
-    /**
-     * Legge i vincitori da un file e li aggiunge alla lista.
-     * 
-     * @param rank Lista in cui memorizzare i vincitori.
-     */
-    private void readWinners(List<Winner> rank) {
-        BufferedReader reader = null;
-        try {
-            reader = new BufferedReader(new FileReader("src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/rank.json"));
-            String readedLine;
-            while ((readedLine = reader.readLine()) != null) {
-                readedLine = readedLine.trim(); // Rimuove spazi vuoti.
-                if (readedLine.startsWith("[") || readedLine.endsWith("]")) {
-                    continue; // Ignora linee non rilevanti.
-                }
-                String id = parseId(readedLine);
-                int win = parseWin(readedLine);
-                Winner winner = new Winner(id);
-                winner.setWin(win);
-                rank.add(winner); // Aggiunge il vincitore alla lista.
-            }
-        } catch (FileNotFoundException ex) {
-            Logger.getLogger(EndGamePanel.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (IOException ex) {
-            Logger.getLogger(EndGamePanel.class.getName()).log(Level.SEVERE, null, ex);
-        } finally {
-            try {
-                if (reader != null) reader.close();
-            } catch (IOException ex) {
-                Logger.getLogger(EndGamePanel.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-    }
-
-    /**
-     * Sovrascrive il file  della classifica con una lista di vincitori.
-     * 
-     * @param winners Lista di vincitori da salvare nel file.
-     */
-    public static void overwriteRankFile(List<Winner> winners) {
-        String filePath = "src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/rank.json";
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("["); // Inizio dell'array JSON
-            writer.newLine();
-            
-            // Itera attraverso la lista di vincitori
-            for (int i = 0; i < winners.size(); i++) {
-                Winner winner = winners.get(i);
-                String json = "{\"id\": \"" + winner.getId() + "\", \"win\": " + winner.getWin() + "}";
-                
-                writer.write(json); // Scrivi l'oggetto JSON del vincitore
-                
-                // Aggiungi una virgola se non è l'ultimo elemento
-                if (i < winners.size() - 1) {
-                    writer.write(",");
-                }
-                writer.newLine();
-            }
-            
-            writer.write("]"); // Fine dell'array JSON
-        } catch (IOException ex) {
-            Logger.getLogger(EndGamePanel.class.getName()).log(Level.SEVERE, null, ex);
-        }
-    }
-
     /**
      * Mostra i giocatori classificati in un pannello.
      * 
@@ -233,28 +122,4 @@ public class EndGamePanel extends JPanel {
             i++;
         }
     }
-
-    /**
-     * Estrae l'ID di un giocatore da una stringa JSON.
-     * 
-     * @param line Linea da cui estrarre l'ID.
-     * @return ID estratto dalla stringa.
-     */
-    private static String parseId(String line) {
-        int startIndex = line.indexOf("\"id\":") + 8;
-        int endIndex = line.indexOf(",", startIndex);
-        return line.substring(startIndex - 1, endIndex - 1).trim();
-    }
-
-    /**
-     * Estrae il numero di vittorie di un giocatore da una stringa JSON.
-     * 
-     * @param line Linea da cui estrarre il numero di vittorie.
-     * @return Numero di vittorie estratto dalla stringa.
-     */
-    private static int parseWin(String line) {
-        int startIndex = line.indexOf("\"win\":") + 6;
-        int endIndex = line.indexOf("}", startIndex);
-        return Integer.parseInt(line.substring(startIndex, endIndex).trim());
-    }
 }
@@ -0,0 +1,400 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @class EndgameSolver
+ * @brief Risolutore esatto delle posizioni di fine partita.
+ *
+ * Quando sulla griglia restano poche celle vuote, esplorare l'albero fino in fondo costa
+ * meno della ricerca euristica e dà il risultato teorico della posizione. Il risolutore
+ * usa un negamax con potatura alfa-beta su due maschere di bit (pedine di chi deve muovere
+ * e celle occupate) e restringe il punteggio con ricerche a finestra nulla.
+ *
+ * I punteggi sono dal punto di vista di chi deve muovere:
+ * - 0 se la partita finisce in pareggio con il gioco perfetto di entrambi;
+ * - positivi se vince, tanto più grandi quanto prima arriva la vittoria;
+ * - negativi se perde, tanto più piccoli quanto prima arriva la sconfitta.
+ *
+ * `getPliesToEnd` converte un punteggio nel numero di mosse che mancano alla fine.
+ *
+ * Con pochi vuoti in più la risoluzione può durare secondi: `chooseMove` accetta un
+ * segnale di arresto e una scadenza, controllati ogni `STOP_CHECK_MASK` + 1 nodi come fa
+ * `MinMaxSearch`. I risultati di una risoluzione interrotta non entrano nella tabella.
+ */
+class EndgameSolver {
+
+    static final int DEFAULT_THRESHOLD = 18;  ///< Celle vuote (al massimo) con cui `AttackStrategy` passa al risolutore.
+
+    private static final int CELLS = BitBoard.ROWS * BitBoard.COLS;  ///< Numero di celle della griglia.
+    private static final int STOP_CHECK_MASK = 1023;  ///< Il segnale di arresto viene controllato una volta ogni 1024 nodi.
+    private static final int H1 = BitBoard.ROWS + 1;  ///< Bit per colonna, compresa la sentinella.
+    private static final long COLUMN_CELLS = (1L << BitBoard.ROWS) - 1;  ///< Le celle della colonna 0.
+    private static final long COLUMN_BITS = (1L << H1) - 1;  ///< I bit della colonna 0, compresa la sentinella.
+
+    private TranspositionTable table;  ///< Posizioni già risolte, con il loro limite.
+    private int[][] moveOrder = new int[CELLS + 1][BitBoard.COLS];  ///< Colonne ordinate a ogni livello, per non allocare.
+    private int[][] moveThreats = new int[CELLS + 1][BitBoard.COLS];  ///< Minacce create da ogni colonna, per l'ordinamento.
+    private long nodes;  ///< Nodi visitati dall'ultima chiamata a `solve` o `chooseMove`.
+    private int lastScore;  ///< Punteggio della mossa scelta dall'ultima `chooseMove`.
+    private AtomicBoolean stopSignal;  ///< Segnale di arresto esterno, o `null`.
+    private long deadline = Long.MAX_VALUE;  ///< Istante (System.nanoTime) oltre il quale interrompere la risoluzione.
+    private boolean aborted;  ///< Indica se l'ultima risoluzione è stata interrotta dal segnale di arresto o dalla scadenza.
+
+    /**
+     * Costruttore del risolutore.
+     *
+     * @param table Tabella delle trasposizioni da usare, non condivisa con `MinMaxSearch`
+     * perché i punteggi hanno un significato diverso.
+     */
+    EndgameSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Restituisce i nodi visitati dall'ultima chiamata a `solve` o `chooseMove`.
+     *
+     * @return Il numero di nodi.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Indica se l'ultima `chooseMove` è stata interrotta: in tal caso la mossa va scartata.
+     *
+     * @return `true` se durante la risoluzione è stato impostato il segnale di arresto
+     * o è passata la scadenza.
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Restituisce il punteggio esatto della mossa scelta dall'ultima `chooseMove`.
+     *
+     * @return Il punteggio dal punto di vista di chi ha mosso.
+     */
+    int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Converte un punteggio nel numero di mosse (di entrambi i giocatori) che mancano
+     * alla fine della partita con il gioco perfetto.
+     *
+     * @param score Il punteggio restituito da `solve`.
+     * @param moveCount Le pedine presenti sulla griglia.
+     * @return Le mosse fino alla vittoria (dispari), alla sconfitta (pari) o, per il
+     * pareggio, fino a griglia piena.
+     */
+    static int getPliesToEnd(int score, int moveCount) {
+        if (score == 0) {
+            return CELLS - moveCount;
+        }
+        int plies = CELLS + 2 - 2 * Math.abs(score) - moveCount;
+        // Chi vince ha l'ultima mossa: dispari se vince chi muove ora, pari altrimenti
+        if ((plies % 2 == 1) != (score > 0)) {
+            plies--;
+        }
+        return plies;
+    }
+
+    /**
+     * Calcola il punteggio esatto di una posizione.
+     *
+     * @param board La posizione da risolvere.
+     * @return Il punteggio dal punto di vista di chi deve muovere.
+     */
+    int solve(BitBoard board) {
+        nodes = 0;
+        stopSignal = null;
+        deadline = Long.MAX_VALUE;
+        aborted = false;
+        int moves = board.getMoveCount();
+        long current = board.getMask(moves % 2 == 0 ? 1 : 2);
+        long mask = current | board.getMask(moves % 2 == 0 ? 2 : 1);
+        return solve(current, mask, moves);
+    }
+
+    /**
+     * Sceglie la mossa con il punteggio esatto migliore.
+     *
+     * A parità di punteggio vince la colonna con indice minore, come in `MinMaxSearch`.
+     *
+     * @param board La posizione attuale, con almeno una colonna libera.
+     * @return La colonna da giocare.
+     */
+    int chooseMove(BitBoard board) {
+        return chooseMove(board, null);
+    }
+
+    /**
+     * Sceglie la mossa con il punteggio esatto migliore, interrompendosi al più presto
+     * quando un altro thread imposta il segnale di arresto.
+     *
+     * @param board La posizione attuale, con almeno una colonna libera.
+     * @param stopSignal Segnale di arresto condiviso, o `null`.
+     * @return La colonna da giocare; se la risoluzione è stata interrotta (`isAborted`)
+     * una colonna libera qualsiasi.
+     */
+    int chooseMove(BitBoard board, AtomicBoolean stopSignal) {
+        return chooseMove(board, stopSignal, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sceglie la mossa con il punteggio esatto migliore entro una scadenza.
+     *
+     * @param board La posizione attuale, con almeno una colonna libera.
+     * @param stopSignal Segnale di arresto condiviso, o `null`.
+     * @param deadline Istante (System.nanoTime) oltre il quale interrompere la risoluzione,
+     * `Long.MAX_VALUE` per nessun limite.
+     * @return La colonna da giocare; se la risoluzione è stata interrotta (`isAborted`)
+     * una colonna libera qualsiasi.
+     */
+    int chooseMove(BitBoard board, AtomicBoolean stopSignal, long deadline) {
+        this.stopSignal = stopSignal;
+        this.deadline = deadline;
+        aborted = false;
+        nodes = 0;
+        int moves = board.getMoveCount();
+        long current = board.getMask(moves % 2 == 0 ? 1 : 2);
+        long mask = current | board.getMask(moves % 2 == 0 ? 2 : 1);
+        long possible = (mask + BitBoard.BOTTOM_MASK) & BitBoard.BOARD_MASK;
+        long winning = possible & BitBoard.winningCells(current, mask);
+
+        int bestMove = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            long move = possible & columnMask(col);
+            if (move == 0) {
+                continue;
+            }
+            if (bestMove < 0) {
+                bestMove = col; // Mossa di riserva se la risoluzione viene interrotta
+            }
+            int score;
+            if ((winning & move) != 0) {
+                score = (CELLS + 1 - moves) / 2; // Vittoria immediata, non si può fare meglio
+            } else {
+                score = -solve(current ^ mask, mask | move, moves + 1);
+            }
+            if (aborted) {
+                break;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = col;
+            }
+        }
+
+        lastScore = bestScore;
+        return bestMove;
+    }
+
+    /**
+     * Restringe l'intervallo del punteggio con ricerche a finestra nulla, partendo
+     * dai valori vicini al pareggio che sono i più frequenti.
+     *
+     * @param current Le pedine di chi deve muovere.
+     * @param mask Tutte le pedine sulla griglia.
+     * @param moves Il numero di pedine sulla griglia.
+     * @return Il punteggio esatto.
+     */
+    private int solve(long current, long mask, int moves) {
+        long possible = (mask + BitBoard.BOTTOM_MASK) & BitBoard.BOARD_MASK;
+        if ((possible & BitBoard.winningCells(current, mask)) != 0) {
+            return (CELLS + 1 - moves) / 2;
+        }
+
+        int min = -(CELLS - moves) / 2;
+        int max = (CELLS + 1 - moves) / 2;
+        while (min < max && !aborted) {
+            int med = min + (max - min) / 2;
+            if (med <= 0 && min / 2 < med) {
+                med = min / 2;
+            } else if (med >= 0 && max / 2 > med) {
+                med = max / 2;
+            }
+            int score = negamax(current, mask, moves, med, med + 1);
+            if (score <= med) {
+                max = score;
+            } else {
+                min = score;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Negamax con potatura alfa-beta (fail-hard).
+     *
+     * Chi deve muovere non ha vittorie immediate: il chiamante lo ha già escluso,
+     * e ogni mossa che ne regala una all'avversario viene scartata prima di giocarla.
+     *
+     * @param current Le pedine di chi deve muovere.
+     * @param mask Tutte le pedine sulla griglia.
+     * @param moves Il numero di pedine sulla griglia.
+     * @param alpha Punteggio minimo già garantito a chi muove.
+     * @param beta Punteggio massimo già garantito all'avversario.
+     * @return Il punteggio, limitato all'intervallo [alpha, beta].
+     */
+    private int negamax(long current, long mask, int moves, int alpha, int beta) {
+        // Arresto richiesto o tempo scaduto: il valore non conta, la mossa verrà scartata
+        if ((++nodes & STOP_CHECK_MASK) == 0
+                && (System.nanoTime() > deadline || (stopSignal != null && stopSignal.get()))) {
+            aborted = true;
+        }
+        if (aborted) {
+            return alpha;
+        }
+
+        // Mosse che non fanno vincere l'avversario alla mossa successiva
+        long possible = (mask + BitBoard.BOTTOM_MASK) & BitBoard.BOARD_MASK;
+        long opponentWin = BitBoard.winningCells(current ^ mask, mask);
+        long forced = possible & opponentWin;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                return -(CELLS - moves) / 2; // Due minacce da parare: sconfitta alla prossima mossa
+            }
+            possible = forced;
+        }
+        long next = possible & ~(opponentWin >>> 1);
+        if (next == 0) {
+            return -(CELLS - moves) / 2;
+        }
+        if (moves >= CELLS - 2) {
+            return 0; // Restano due celle e nessuno può più vincere
+        }
+
+        // Limiti teorici: non si può vincere prima della prossima mossa né perdere prima di due
+        int min = -(CELLS - 2 - moves) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        int max = (CELLS - 1 - moves) / 2;
+
+        // Come in `BitBoard.getCanonicalHash`, una posizione e la sua riflessione condividono
+        // la voce con la chiave minore; le mosse salvate sono in quell'orientamento
+        long position = current + mask;
+        long key = mix(position);
+        long mirrorKey = mix(mirror(position));
+        boolean mirrored = mirrorKey < key;
+        if (mirrored) {
+            key = mirrorKey;
+        }
+        long entry = table.probe(key);
+        int ttMove = TranspositionTable.NO_MOVE;
+        if (entry != 0) {
+            int score = TranspositionTable.getScore(entry);
+            int bound = TranspositionTable.getBound(entry);
+            ttMove = TranspositionTable.getMove(entry);
+            if (mirrored && ttMove != TranspositionTable.NO_MOVE) {
+                ttMove = BitBoard.COLS - 1 - ttMove;
+            }
+            if (bound == TranspositionTable.EXACT) {
+                return Math.max(alpha, Math.min(beta, score));
+            } else if (bound == TranspositionTable.LOWER) {
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    return alpha;
+                }
+            } else {
+                max = Math.min(max, score);
+            }
+        }
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+
+        // Prima la mossa della tabella, poi quelle che creano più minacce (a parità dal centro)
+        int[] order = moveOrder[moves];
+        int[] threats = moveThreats[moves];
+        int count = 0;
+        for (int col : BitBoard.CENTER_ORDER) {
+            long move = next & columnMask(col);
+            if (move == 0) {
+                continue;
+            }
+            int value = col == ttMove ? Integer.MAX_VALUE
+                    : Long.bitCount(BitBoard.winningCells(current | move, mask | move));
+            int i = count++;
+            while (i > 0 && threats[i - 1] < value) {
+                order[i] = order[i - 1];
+                threats[i] = threats[i - 1];
+                i--;
+            }
+            order[i] = col;
+            threats[i] = value;
+        }
+
+        int alphaOrig = alpha;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int col = order[i];
+            long move = next & columnMask(col);
+            int score = -negamax(current ^ mask, mask | move, moves + 1, -beta, -alpha);
+            if (aborted) {
+                return alpha; // Senza salvare nella tabella un valore incompleto
+            }
+            if (score >= beta) {
+                table.store(key, CELLS - moves, score, TranspositionTable.LOWER, mirrored ? BitBoard.COLS - 1 - col : col);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = col;
+            }
+        }
+
+        if (mirrored && bestMove != TranspositionTable.NO_MOVE) {
+            bestMove = BitBoard.COLS - 1 - bestMove;
+        }
+        table.store(key, CELLS - moves, alpha,
+                alpha > alphaOrig ? TranspositionTable.EXACT : TranspositionTable.UPPER, bestMove);
+        return alpha;
+    }
+
+    /**
+     * Restituisce le celle di una colonna.
+     *
+     * @param col La colonna.
+     * @return La maschera delle sue celle.
+     */
+    private static long columnMask(int col) {
+        return COLUMN_CELLS << (col * H1);
+    }
+
+    /**
+     * Distribuisce i bit di una posizione per usarla come chiave della tabella.
+     *
+     * `current + mask` identifica la posizione in modo univoco; la moltiplicazione per
+     * una costante dispari (biiettiva) distribuisce i bit bassi, usati come indice del bucket.
+     *
+     * @param position La posizione codificata come `current + mask`.
+     * @return La chiave a 64 bit.
+     */
+    private static long mix(long position) {
+        return position * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Riflette da sinistra a destra una maschera di bit, colonna per colonna.
+     *
+     * @param bits La maschera, con 7 bit per colonna.
+     * @return La maschera con la colonna 0 scambiata con la 6, la 1 con la 5 e così via.
+     */
+    private static long mirror(long bits) {
+        long result = 0;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            result |= ((bits >>> (col * H1)) & COLUMN_BITS) << ((BitBoard.COLS - 1 - col) * H1);
+        }
+        return result;
+    }
+}
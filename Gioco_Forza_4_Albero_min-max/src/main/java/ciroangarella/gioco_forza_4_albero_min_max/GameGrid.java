@@ -6,36 +6,41 @@ import java.awt.Dimension;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.IOException;
+import java.util.concurrent.CancellationException;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /**
  * @class GameGrid
  * @brief Gestisce la griglia di gioco per il Forza 4.
- * 
- * La classe rappresenta la griglia del gioco Forza 4 e include le funzionalità
- * per posizionare i gettoni, controllare le vittorie e aggiornare lo stato della partita.
+ *
+ * La classe è la vista di un `GameModel`: i pulsanti inviano le mosse al modello e
+ * la griglia di `Token` viene aggiornata solo dagli eventi del modello (`GameListener`),
+ * che decide anche vittorie e pareggi. La classe coordina inoltre la ricerca del bot
+ * e il salvataggio della partita.
  */
-public class GameGrid extends JPanel {
+public class GameGrid extends JPanel implements GameListener {
 
-    private static final int ROWS = 6;   ///< Numero di righe della griglia di gioco.
-    private static final int COLS = 7;   ///< Numero di colonne della griglia di gioco.
+    private static final int ROWS = GameModel.ROWS;   ///< Numero di righe della griglia di gioco.
+    private static final int COLS = GameModel.COLS;   ///< Numero di colonne della griglia di gioco.
     private static final int CELL_SIZE = 40;  ///< Dimensione delle celle della griglia.
 
-    private Token[][] grid; ///< Matrice della griglia che memorizza lo stato dei gettoni.
+    private GameModel model; ///< Stato della partita, fonte di verità della griglia.
+    private Token[][] grid; ///< Matrice delle celle disegnate, una per ogni cella del modello.
     private ImageIcon emptyIcon; ///< Icona per una cella vuota.
     private InterfacePlayer player; ///< Riferimento al giocatore umano.
     private InterfacePlayer bot; ///< Riferimento al bot.
-    private Strategy strategy; ///< Strategia utilizzata dal bot.
-    private int tie; ///< Contatore delle mosse per controllare i pareggi.
+    private AsyncStrategy strategy; ///< Strategia utilizzata dal bot, eseguita fuori dal thread di Swing.
+    private boolean botThinking; ///< Indica se il bot sta cercando la sua mossa.
+    private boolean closed; ///< Indica se la partita è stata chiusa con `close`.
     private WindowMediator mediator; ///< Mediatore per gestire la fine della partita.
     private SaveHandler saveHandler = SaveHandler.getInstance(); ///< Gestore del salvataggio della partita.
 
     /**
      * @brief Costruttore che inizializza la griglia di gioco.
-     * 
+     *
      * @param player Giocatore umano.
      * @param bot Giocatore bot.
      * @param strategy Strategia per il bot.
@@ -44,57 +49,47 @@ public class GameGrid extends JPanel {
     public GameGrid(InterfacePlayer player, InterfacePlayer bot, Strategy strategy, WindowMediator mediator) {
         this.player = player;
         this.bot = bot;
-        this.strategy = strategy;
+        this.strategy = new AsyncStrategy(strategy);
         this.mediator = mediator;  // Usa il mediator passato al costruttore
-        this.tie = 0; // Conta il numero di mosse
 
-        setLayout(new BorderLayout()); 
-        grid = new Token[ROWS][COLS];
+        setLayout(new BorderLayout());
         emptyIcon = new ImageIcon("src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/empty.png");
 
+        // Recupera la partita dal salvataggio e si registra per i suoi eventi
+        model = saveHandler.loadGame();
+        model.addListener(this);
+        model.addListener(saveHandler); // Ogni mossa viene aggiunta al giornale del salvataggio
+
         // Inizializza i pannelli
         initializeControlPanel();
         initializeGrid();
+
+        // Il giornale salva anche la mossa del giocatore prima della risposta del bot:
+        // se la partita recuperata si ferma lì, il bot deve muovere subito
+        if (model.getStatus() == GameModel.IN_PROGRESS && model.getCurrentPlayer() == bot.getPlayerCode()) {
+            startBotMove();
+        }
     }
 
     /**
-     * @brief Inizializza la griglia di gioco e popola ogni cella con un token vuoto.
-     * 
-     * Questo metodo inizializza il pannello della griglia di gioco, impostando 
-     * le celle vuote e aggiornando la griglia salvata.
+     * @brief Inizializza la griglia di gioco con una cella per ogni cella del modello.
+     *
+     * Questo metodo inizializza il pannello della griglia di gioco, mostrando
+     * le pedine già presenti nel modello (quelle recuperate dal salvataggio).
      */
     private void initializeGrid() {
         JPanel gridPanel = new JPanel(new GridLayout(ROWS, COLS));
+        grid = new Token[ROWS][COLS];
 
-        // Riempie la griglia con token vuoti
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col < COLS; col++) {
-                Token emptyToken = new Token();
-                emptyToken.setBackground(Color.blue);
-                emptyToken.setOwner(0, emptyIcon);
-                emptyToken.setPreferredSize(new Dimension(CELL_SIZE, CELL_SIZE));
-                grid[row][col] = emptyToken;
-                gridPanel.add(grid[row][col]);
-            }
-        }
-
-        // Recupera e aggiorna la griglia dal salvataggio
         for (int row = 0; row < ROWS; row++) {
             for (int col = 0; col < COLS; col++) {
-                try {
-                    int owner = saveHandler.getOwner(row, col);
-                    if (owner == 1) {
-                        tie++;
-                        grid[row][col].setOwner(1, player.getIcon());
-                    } else if (owner == 2) {
-                        tie++;
-                        grid[row][col].setOwner(2, bot.getIcon());
-                    } else {
-                        grid[row][col].setOwner(0, emptyIcon);
-                    }
-                } catch (IOException ex) {
-                    ex.printStackTrace();
-                }
+                Token token = new Token();
+                token.setBackground(Color.blue);
+                token.setPreferredSize(new Dimension(CELL_SIZE, CELL_SIZE));
+                int owner = model.getOwner(row, col);
+                token.setOwner(owner, iconFor(owner));
+                grid[row][col] = token;
+                gridPanel.add(token);
             }
         }
 
@@ -103,7 +98,7 @@ public class GameGrid extends JPanel {
 
     /**
      * @brief Inizializza il pannello di controllo con i pulsanti per far cadere i gettoni.
-     * 
+     *
      * Questo metodo crea una fila di pulsanti, uno per ogni colonna, che permettono
      * ai giocatori di inserire i gettoni nella griglia.
      */
@@ -121,10 +116,25 @@ public class GameGrid extends JPanel {
         add(controlPanel, BorderLayout.NORTH);
     }
 
+    /**
+     * @brief Restituisce l'icona di un proprietario.
+     *
+     * @param owner 0 per una cella vuota, altrimenti il codice del giocatore.
+     * @return L'icona da mostrare nella cella.
+     */
+    private ImageIcon iconFor(int owner) {
+        if (owner == player.getPlayerCode()) {
+            return player.getIcon();
+        } else if (owner == bot.getPlayerCode()) {
+            return bot.getIcon();
+        }
+        return emptyIcon;
+    }
+
     /**
      * @class ButtonListener
      * @brief Listener per i pulsanti di inserimento dei gettoni.
-     * 
+     *
      * Classe interna che gestisce l'azione di inserire un gettone nella colonna corrispondente
      * quando un pulsante viene premuto.
      */
@@ -133,7 +143,7 @@ public class GameGrid extends JPanel {
 
         /**
          * @brief Costruttore del ButtonListener.
-         * 
+         *
          * @param column La colonna associata al pulsante.
          */
         public ButtonListener(int column) {
@@ -142,152 +152,133 @@ public class GameGrid extends JPanel {
 
         /**
          * @brief Azione eseguita quando si preme un pulsante per inserire un gettone.
-         * 
+         *
+         * La mossa del bot viene cercata in background: i clic arrivati nel frattempo
+         * vengono ignorati e la finestra resta reattiva. Se tocca al bot (la sua ricerca
+         * è fallita) il clic la fa ripartire invece di giocare.
+         *
          * @param e Evento che rappresenta l'azione eseguita.
          */
         @Override
         public void actionPerformed(ActionEvent e) {
-            if (grid[0][column].getOwner() != 0) {
-                    return;
-            }else{
-                        
-                    
-                placeToken(grid, column, player);
-                tie++;
-                if (checkForWin(grid, player) == 1) {
-                    System.out.println("Player " + player.getId() + " wins");
-                    mediator.endGame(player);  // Usa il mediator passato
-                } else if (tie == 42) {
-                    System.out.println("Tie");
-                    mediator.endTieGame();  // Usa il mediator passato
-                } else {
-                    int botMove = strategy.chooseMove(grid);
-                    placeToken(grid, botMove, bot);
-                    tie++;
-                    if (checkForWin(grid, bot) == 1) {
-                        System.out.println("bot " + bot.getId() + " wins");
-                        mediator.endGame(bot);  // Usa il mediator passato
-                    } else if (tie == 42) {
-                        System.out.println("Tie");
-                        mediator.endTieGame();  // Usa il mediator passato
-                    }
-                }
+            if (botThinking || closed || model.getStatus() != GameModel.IN_PROGRESS) {
+                return;
+            }
+            if (model.getCurrentPlayer() == bot.getPlayerCode()) {
+                startBotMove();
+                return;
+            }
+            if (!model.canPlay(column)) {
+                return;
+            }
 
-                // Aggiorna il salvataggio se non ci sono vincitori
-                if(checkForWin(grid, bot) == 0 && checkForWin(grid, player) == 0 && tie != ROWS*COLS){
-                    for (int i = 0; i < ROWS; i++) {
-                        for (int j = 0; j < COLS; j++) {
-                            try {
-                                saveHandler.setOwner(grid[i][j].getOwner(), i, j);
-                            } catch (IOException ex) {
-                                ex.printStackTrace();
-                            }
-                        }
-                    }
-                }
+            model.play(column);
+            if (model.getStatus() == GameModel.IN_PROGRESS) {
+                startBotMove();
             }
         }
     }
 
     /**
-     * @brief Posiziona un gettone nella colonna specificata.
-     * 
-     * Cerca la prima cella disponibile nella colonna e assegna ad essa il token
-     * del giocatore corrente.
-     * 
-     * @param grid La griglia di gioco.
-     * @param column La colonna in cui inserire il gettone.
-     * @param currentPlayer Il giocatore corrente che sta inserendo il gettone.
+     * @brief Avvia la ricerca della mossa del bot.
+     *
+     * La ricerca gira sul pool del bot e il risultato torna sul thread di Swing. Se la
+     * ricerca fallisce `botThinking` torna `false`, altrimenti la griglia ignorerebbe
+     * ogni clic successivo.
+     */
+    private void startBotMove() {
+        botThinking = true;
+        strategy.chooseMoveAsync(model.getBoard())
+                .thenAcceptAsync(this::applyBotMove, SwingUtilities::invokeLater)
+                .exceptionally(ex -> {
+                    if (!(ex.getCause() instanceof CancellationException)) {
+                        ex.printStackTrace();
+                    }
+                    SwingUtilities.invokeLater(() -> botThinking = false);
+                    return null;
+                });
+    }
+
+    /**
+     * @brief Inserisce la mossa scelta dal bot nel modello.
+     *
+     * Eseguito sul thread degli eventi Swing quando la ricerca termina. Se intanto la
+     * partita è stata chiusa la mossa viene ignorata.
+     *
+     * @param botMove La colonna scelta dal bot.
      */
-    public static void placeToken(Token[][] grid, int column, InterfacePlayer currentPlayer) {
-        if (grid[0][column].getOwner() != 0) {
+    private void applyBotMove(int botMove) {
+        if (closed) {
             return;
         }
-        for (int row = ROWS - 1; row >= 0; row--) {
-            if (grid[row][column].getOwner() == 0) {
-                grid[row][column].setOwner(currentPlayer.getPlayerCode(), currentPlayer.getIcon());
-                break;
-            }
+        botThinking = false;
+
+        model.play(botMove);
+        if (model.getStatus() != GameModel.IN_PROGRESS) {
+            return;
         }
+
+        // Mentre il giocatore pensa il bot cerca già le risposte
+        strategy.startPondering(model.getBoard());
     }
 
     /**
-     * @brief Controlla se un giocatore ha vinto la partita.
-     * 
-     * Verifica la presenza di una combinazione vincente di 4 gettoni allineati orizzontalmente,
-     * verticalmente o diagonalmente per il giocatore specificato.
-     * 
-     * @param grid La griglia di gioco.
-     * @param player Il giocatore di cui verificare la vittoria.
-     * @return 1 se il giocatore ha vinto, 0 altrimenti.
+     * @brief Mostra la pedina appena inserita nel modello.
+     *
+     * @param row La riga della pedina.
+     * @param col La colonna della pedina.
+     * @param playerCode Il codice del giocatore che l'ha inserita.
      */
-    public static int checkForWin(Token grid[][], InterfacePlayer player) {
-        // Controlla vittoria nelle righe
-        for (int row = 0; row < ROWS; row++) {
-            int rowWin = 0;
-            for (int col = 0; col < COLS; col++) {
-                if (grid[row][col].getOwner() == player.getPlayerCode()) {
-                    rowWin++;
-                    if (rowWin == 4) {
-                        System.out.println("Player " + player.getPlayerCode() + " wins by row!");
-                        return 1;
-                    }
-                } else {
-                    rowWin = 0;
-                }
-            }
-        }
+    @Override
+    public void tokenPlaced(int row, int col, int playerCode) {
+        grid[row][col].setOwner(playerCode, iconFor(playerCode));
+    }
 
-        // Controlla vittoria nelle colonne
-        for (int col = 0; col < COLS; col++) {
-            int colWin = 0;
-            for (int row = 0; row < ROWS; row++) {
-                if (grid[row][col].getOwner() == player.getPlayerCode()) {
-                    colWin++;
-                    if (colWin == 4) {
-                        System.out.println("Player " + player.getPlayerCode() + " wins by column!");
-                        return 1;
-                    }
-                } else {
-                    colWin = 0;
-                }
-            }
-        }
+    /**
+     * @brief Svuota la cella di una mossa annullata.
+     *
+     * @param row La riga della pedina tolta.
+     * @param col La colonna della pedina tolta.
+     */
+    @Override
+    public void tokenRemoved(int row, int col) {
+        grid[row][col].setOwner(0, emptyIcon);
+    }
 
-        // Controlla vittoria nelle diagonali ascendenti (dal basso a sinistra verso l'alto a destra)
-        for (int row = 3; row < ROWS; row++) {
-            for (int col = 0; col < COLS - 3; col++) {
-                boolean win = true;
-                for (int i = 0; i < 4; i++) {
-                    if (grid[row - i][col + i].getOwner() != player.getPlayerCode()) {
-                        win = false;
-                        break;
-                    }
-                }
-                if (win) {
-                    System.out.println("Player " + player.getPlayerCode() + " wins by ascending diagonal!");
-                    return 1;
-                }
-            }
-        }
+    /**
+     * @brief Chiude la partita vinta e mostra il pannello di fine partita.
+     *
+     * @param playerCode Il codice del vincitore.
+     */
+    @Override
+    public void gameWon(int playerCode) {
+        InterfacePlayer winner = playerCode == player.getPlayerCode() ? player : bot;
+        System.out.println((winner == player ? "Player " : "bot ") + winner.getId() + " wins");
+        strategy.stopPonderingAsync(); // Fermarlo qui bloccherebbe la GUI fino alla fine del pondering
+        mediator.endGame(winner);  // Usa il mediator passato
+    }
 
-        // Controlla vittoria nelle diagonali discendenti (dal basso a destra verso l'alto a sinistra)
-        for (int row = 0; row < ROWS - 3; row++) {
-            for (int col = 0; col < COLS - 3; col++) {
-                boolean win = true;
-                for (int i = 0; i < 4; i++) {
-                    if (grid[row + i][col + i].getOwner() != player.getPlayerCode()) {
-                        win = false;
-                        break;
-                    }
-                }
-                if (win) {
-                    System.out.println("Player " + player.getPlayerCode() + " wins by descending diagonal!");
-                    return 1;
-                }
-            }
-        }
-        
-        return 0; // Nessuna vittoria trovata
+    /**
+     * @brief Chiude la partita in pareggio e mostra il pannello di fine partita.
+     */
+    @Override
+    public void gameTied() {
+        System.out.println("Tie");
+        strategy.stopPonderingAsync();
+        mediator.endTieGame();  // Usa il mediator passato
+    }
+
+    /**
+     * @brief Chiude la partita: annulla la ricerca del bot e il pondering.
+     *
+     * Da chiamare quando la griglia viene sostituita da una nuova partita o quando
+     * la finestra viene chiusa.
+     */
+    public void close() {
+        closed = true;
+        model.removeListener(this);
+        model.removeListener(saveHandler);
+        strategy.cancel();
+        strategy.stopPonderingAsync();
     }
 }
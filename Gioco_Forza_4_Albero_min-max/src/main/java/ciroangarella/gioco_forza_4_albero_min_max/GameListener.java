@@ -0,0 +1,46 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+/**
+ * @interface GameListener
+ * @brief Riceve gli eventi di un `GameModel`.
+ *
+ * Le viste (come `GameGrid`) si registrano con `GameModel.addListener` e si aggiornano
+ * solo in risposta a questi eventi. Gli eventi arrivano sul thread che ha chiamato
+ * `play` o `undo`. Tutti i metodi hanno un'implementazione vuota, quindi basta
+ * ridefinire quelli che interessano.
+ */
+public interface GameListener {
+
+    /**
+     * @brief Una pedina è stata inserita nella griglia.
+     *
+     * @param row La riga della pedina (0 in alto).
+     * @param col La colonna della pedina.
+     * @param playerCode Il codice del giocatore che l'ha inserita.
+     */
+    public default void tokenPlaced(int row, int col, int playerCode) {
+    }
+
+    /**
+     * @brief Una pedina è stata tolta dalla griglia con `GameModel.undo`.
+     *
+     * @param row La riga della pedina (0 in alto).
+     * @param col La colonna della pedina.
+     */
+    public default void tokenRemoved(int row, int col) {
+    }
+
+    /**
+     * @brief Un giocatore ha allineato quattro pedine. Arriva dopo il suo `tokenPlaced`.
+     *
+     * @param playerCode Il codice del vincitore.
+     */
+    public default void gameWon(int playerCode) {
+    }
+
+    /**
+     * @brief La griglia è piena senza vincitori. Arriva dopo l'ultimo `tokenPlaced`.
+     */
+    public default void gameTied() {
+    }
+}
@@ -0,0 +1,295 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @class GameModel
+ * @brief Stato di una partita di Forza 4, senza dipendenze da AWT o Swing.
+ *
+ * Contiene la griglia, la cronologia delle mosse, lo stato della partita e il giocatore
+ * di turno (il giocatore con codice 1 muove per primo). È la fonte di verità della
+ * partita: le viste si registrano come `GameListener` e ridisegnano solo ciò che gli
+ * eventi indicano, quindi una partita può essere giocata anche senza interfaccia grafica.
+ *
+ * La griglia è una matrice di codici (0 vuota, 1 o 2 il giocatore), con la riga 0 in
+ * alto come nella GUI; la vittoria si controlla solo sulle linee che passano per l'ultima
+ * pedina. Accanto alla matrice viene aggiornata una `BitBoard`, di cui le strategie
+ * ricevono una copia con `getBoard`.
+ *
+ * La classe non è thread-safe: le mosse vanno giocate da un solo thread (nella GUI
+ * quello degli eventi Swing).
+ */
+public class GameModel {
+
+    public static final int ROWS = BitBoard.ROWS;  ///< Numero di righe della griglia di gioco.
+    public static final int COLS = BitBoard.COLS;  ///< Numero di colonne della griglia di gioco.
+
+    public static final int IN_PROGRESS = 0;  ///< La partita è in corso.
+    public static final int WON = 1;  ///< Un giocatore ha allineato quattro pedine.
+    public static final int TIE = 2;  ///< La griglia è piena senza vincitori.
+
+    private int[][] cells = new int[ROWS][COLS];  ///< Codice del proprietario di ogni cella (riga 0 in alto).
+    private BitBoard board = new BitBoard();  ///< La stessa posizione per le strategie.
+    private List<Integer> moves = new ArrayList<>();  ///< Colonne giocate con `play`, in ordine.
+    private int status = IN_PROGRESS;  ///< Stato della partita: `IN_PROGRESS`, `WON` o `TIE`.
+    private int winner;  ///< Codice del vincitore, 0 se non c'è.
+    private List<GameListener> listeners = new CopyOnWriteArrayList<>();  ///< Viste da avvisare a ogni evento.
+
+    /**
+     * @brief Costruttore che crea una partita con la griglia vuota.
+     */
+    public GameModel() {
+    }
+
+    /**
+     * @brief Crea una partita a partire dai proprietari delle celle, ad esempio da un salvataggio.
+     *
+     * Le pedine di ogni colonna vengono impilate dal basso fino alla prima cella vuota.
+     * L'ordine in cui sono state giocate non è noto, quindi non entrano nella cronologia
+     * e non si possono annullare; il giocatore di turno si ricava dal numero di pedine.
+     *
+     * @param owners La matrice dei proprietari (riga 0 in alto), 0 per le celle vuote.
+     * @return La partita, con lo stato ricalcolato.
+     */
+    public static GameModel fromOwners(int[][] owners) {
+        GameModel model = new GameModel();
+        for (int col = 0; col < COLS; col++) {
+            for (int row = ROWS - 1; row >= 0; row--) {
+                int owner = owners[row][col];
+                if (owner == 0) {
+                    break;
+                }
+                if (owner != 1 && owner != 2) {
+                    throw new IllegalArgumentException("Invalid owner " + owner + " at " + row + "," + col);
+                }
+                model.cells[row][col] = owner;
+                model.board.play(col, owner);
+            }
+        }
+        for (int playerCode = 1; playerCode <= 2; playerCode++) {
+            if (model.board.checkForWin(playerCode) == 1) {
+                model.status = WON;
+                model.winner = playerCode;
+            }
+        }
+        if (model.status == IN_PROGRESS && model.board.isFull()) {
+            model.status = TIE;
+        }
+        return model;
+    }
+
+    /**
+     * @brief Registra una vista che riceverà gli eventi della partita.
+     *
+     * @param listener La vista da avvisare.
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @brief Rimuove una vista registrata con `addListener`.
+     *
+     * @param listener La vista da non avvisare più.
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @brief Inserisce una pedina del giocatore di turno nella colonna indicata.
+     *
+     * Avvisa le viste con `tokenPlaced` e, se la mossa chiude la partita, con
+     * `gameWon` o `gameTied`.
+     *
+     * @param col La colonna in cui inserire la pedina.
+     * @return La riga in cui è finita la pedina (0 in alto).
+     * @throws IllegalStateException Se la partita è già finita.
+     * @throws IllegalArgumentException Se la colonna non esiste o è piena.
+     */
+    public int play(int col) {
+        if (status != IN_PROGRESS) {
+            throw new IllegalStateException("The game is over");
+        }
+        if (!canPlay(col)) {
+            throw new IllegalArgumentException("Column " + col + " is not playable");
+        }
+        int playerCode = getCurrentPlayer();
+        int row = ROWS - 1 - board.getHeight(col);
+        cells[row][col] = playerCode;
+        board.play(col, playerCode);
+        moves.add(col);
+
+        if (checkForWin(cells, row, col, playerCode) == 1) {
+            status = WON;
+            winner = playerCode;
+        } else if (board.isFull()) {
+            status = TIE;
+        }
+
+        for (GameListener listener : listeners) {
+            listener.tokenPlaced(row, col, playerCode);
+        }
+        if (status == WON) {
+            for (GameListener listener : listeners) {
+                listener.gameWon(playerCode);
+            }
+        } else if (status == TIE) {
+            for (GameListener listener : listeners) {
+                listener.gameTied();
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @brief Annulla l'ultima mossa giocata con `play`, riaprendo la partita se era finita.
+     *
+     * @return La colonna della mossa annullata.
+     * @throws IllegalStateException Se la cronologia è vuota.
+     */
+    public int undo() {
+        if (moves.isEmpty()) {
+            throw new IllegalStateException("No move to undo");
+        }
+        int col = moves.remove(moves.size() - 1);
+        board.undo(col);
+        int row = ROWS - 1 - board.getHeight(col);
+        cells[row][col] = 0;
+        status = IN_PROGRESS;
+        winner = 0;
+
+        for (GameListener listener : listeners) {
+            listener.tokenRemoved(row, col);
+        }
+        return col;
+    }
+
+    /**
+     * @brief Indica se una colonna esiste e non è piena.
+     *
+     * @param col La colonna da controllare.
+     * @return `true` se si può inserire una pedina nella colonna.
+     */
+    public boolean canPlay(int col) {
+        return col >= 0 && col < COLS && board.canPlay(col);
+    }
+
+    /**
+     * @brief Restituisce il proprietario di una cella.
+     *
+     * @param row La riga (0 in alto).
+     * @param col La colonna.
+     * @return 0 se la cella è vuota, altrimenti il codice del giocatore.
+     */
+    public int getOwner(int row, int col) {
+        return cells[row][col];
+    }
+
+    /**
+     * @brief Restituisce il codice del giocatore di turno.
+     *
+     * @return 1 se le pedine sono in numero pari, altrimenti 2.
+     */
+    public int getCurrentPlayer() {
+        return board.getMoveCount() % 2 == 0 ? 1 : 2;
+    }
+
+    /**
+     * @brief Restituisce lo stato della partita.
+     *
+     * @return `IN_PROGRESS`, `WON` o `TIE`.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @brief Restituisce il vincitore.
+     *
+     * @return Il codice del vincitore, 0 se la partita non è vinta.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * @brief Restituisce il numero di pedine sulla griglia.
+     *
+     * @return Le pedine, comprese quelle caricate con `fromOwners`.
+     */
+    public int getMoveCount() {
+        return board.getMoveCount();
+    }
+
+    /**
+     * @brief Restituisce la cronologia delle mosse giocate con `play`.
+     *
+     * @return Le colonne, dalla prima all'ultima (lista non modificabile).
+     */
+    public List<Integer> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * @brief Restituisce una copia della posizione per le strategie.
+     *
+     * @return Una `BitBoard` indipendente dalla partita.
+     */
+    public BitBoard getBoard() {
+        return new BitBoard(board);
+    }
+
+    /**
+     * @brief Controlla se l'ultima pedina inserita ha fatto vincere il giocatore.
+     *
+     * Solo le linee che passano per l'ultima pedina possono essere cambiate, quindi
+     * si contano le pedine consecutive del giocatore nelle quattro direzioni
+     * (orizzontale, verticale e le due diagonali) a partire da quella cella.
+     *
+     * @param cells La matrice dei proprietari (riga 0 in alto).
+     * @param row La riga dell'ultima pedina inserita.
+     * @param col La colonna dell'ultima pedina inserita.
+     * @param playerCode Il codice del giocatore che l'ha inserita.
+     * @return 1 se il giocatore ha vinto, 0 altrimenti.
+     */
+    public static int checkForWin(int[][] cells, int row, int col, int playerCode) {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] direction : directions) {
+            int count = 1
+                    + countTokens(cells, row, col, direction[0], direction[1], playerCode)
+                    + countTokens(cells, row, col, -direction[0], -direction[1], playerCode);
+            if (count >= 4) {
+                return 1;
+            }
+        }
+        return 0; // Nessuna vittoria trovata
+    }
+
+    /**
+     * @brief Conta le pedine consecutive di un giocatore in una direzione, esclusa la cella di partenza.
+     *
+     * @param cells La matrice dei proprietari.
+     * @param row La riga di partenza.
+     * @param col La colonna di partenza.
+     * @param rowStep Spostamento di riga a ogni passo.
+     * @param colStep Spostamento di colonna a ogni passo.
+     * @param playerCode Il codice del giocatore.
+     * @return Il numero di pedine consecutive trovate (al massimo 3).
+     */
+    private static int countTokens(int[][] cells, int row, int col, int rowStep, int colStep, int playerCode) {
+        int count = 0;
+        for (int i = 1; i < 4; i++) {
+            int r = row + i * rowStep;
+            int c = col + i * colStep;
+            if (r < 0 || r >= ROWS || c < 0 || c >= COLS || cells[r][c] != playerCode) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+}
@@ -10,7 +10,7 @@ import java.io.IOException;
  * @class GameModesPanel
  * @brief Pannello per la selezione della modalità di gioco in Forza 4.
  * 
- * Questa classe gestisce la selezione delle modalità di gioco ("DEFENSE", "ATTACK", "CAREFUL") 
+ * Questa classe gestisce la selezione delle modalità di gioco ("DEFENSE", "ATTACK", "CAREFUL", "PERFECT") 
  * e inizializza la partita con la strategia scelta. Il nome della startegia viene usato come id della classe bot.
  */
 public class GameModesPanel extends JPanel {
@@ -39,6 +39,7 @@ public class GameModesPanel extends JPanel {
         JButton defenseButton = new JButton("DEFENSE");
         JButton attackButton = new JButton("ATTACK");
         JButton carefulButton = new JButton("CAREFUL");
+        JButton perfectButton = new JButton("PERFECT");
 
         // Posiziona i pulsanti all'interno del pannello
         gbc.gridx = 0;
@@ -51,6 +52,9 @@ public class GameModesPanel extends JPanel {
         gbc.gridx = 2;
         add(carefulButton, gbc);
 
+        gbc.gridx = 3;
+        add(perfectButton, gbc);
+
         /**
          * @brief Listener per gestire la selezione della modalità di gioco.
          * 
@@ -78,6 +82,10 @@ public class GameModesPanel extends JPanel {
                         strategy = new CarefulStrategy(player, bot);
                         bot.setId(command + " BOT");
                         break;
+                    case "PERFECT":
+                        strategy = new PerfectStrategy(player, bot);
+                        bot.setId(command + " BOT");
+                        break;
                     default:
                         strategy = new AttackStrategy(player, bot);
                         bot.setId(command + " BOT");
@@ -99,6 +107,7 @@ public class GameModesPanel extends JPanel {
         defenseButton.addActionListener(buttonListener);
         attackButton.addActionListener(buttonListener);
         carefulButton.addActionListener(buttonListener);
+        perfectButton.addActionListener(buttonListener);
     }
 
     /**
@@ -54,6 +54,10 @@ public class Gioco_Forza_4_Albero_minMax {
                     strategy = new CarefulStrategy(player, bot);
                     bot.setId(bot.getId() + " BOT"); ///< Aggiorna l'ID del bot
                     break;
+                case "PERFECT":
+                    strategy = new PerfectStrategy(player, bot);
+                    bot.setId(bot.getId() + " BOT"); ///< Aggiorna l'ID del bot
+                    break;
                 default:
                     strategy = new AttackStrategy(player, bot); ///< Strategia di default
                     bot.setId(bot.getId() + " BOT"); ///< Aggiorna l'ID del bot
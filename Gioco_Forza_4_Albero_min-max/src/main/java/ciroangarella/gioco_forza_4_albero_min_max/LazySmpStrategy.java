@@ -0,0 +1,199 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @class LazySmpStrategy
+ * @brief Strategia d'attacco multithread in stile Lazy SMP.
+ *
+ * Tutti i thread eseguono la stessa ricerca per approfondimento iterativo sulla stessa
+ * posizione, condividendo un'unica `TranspositionTable` senza lock. I thread ausiliari
+ * provano le colonne in ordini leggermente diversi e metà di loro parte una profondità
+ * più avanti: così riempiono la tabella con posizioni che il thread principale troverà
+ * già risolte.
+ *
+ * La mossa restituita è quella dell'ultima iterazione completata dal thread principale.
+ * Poiché la tabella riusa un punteggio solo alla stessa profondità, la mossa è identica
+ * a quella di `AttackStrategy` alla stessa profondità (con il risolutore di fine partita
+ * disattivato); cambia solo il tempo impiegato.
+ */
+public class LazySmpStrategy implements Strategy {
+
+    /**
+     * @brief Ordini delle colonne usati dai thread ausiliari.
+     *
+     * Sono tutti vicini all'ordine dal centro ai bordi, per restare efficienti,
+     * ma abbastanza diversi da far esplorare ai thread rami diversi dell'albero.
+     */
+    private static final int[][] HELPER_ORDERS = {
+        {3, 4, 2, 5, 1, 6, 0},
+        {2, 3, 4, 1, 5, 0, 6},
+        {4, 3, 2, 5, 1, 6, 0},
+        {3, 2, 4, 5, 1, 0, 6},
+    };
+
+    private InterfacePlayer bot;  ///< Riferimento al giocatore bot.
+    private InterfacePlayer player;  ///< Riferimento al giocatore umano.
+    private TranspositionTable table;  ///< Tabella condivisa da tutti i thread.
+    private MinMaxSearch mainSearch;  ///< Ricerca del thread principale, quello che sceglie la mossa.
+    private MinMaxSearch[] helperSearches;  ///< Ricerche dei thread ausiliari.
+    private ExecutorService helpers;  ///< Thread ausiliari, `threads - 1`.
+    private int depth = AttackStrategy.DEFAULT_DEPTH;  ///< Profondità massima quando non c'è un tempo per mossa.
+    private long moveTimeMillis;  ///< Tempo massimo per mossa in millisecondi, 0 per la profondità fissa.
+
+    /**
+     * Costruttore con la tabella di dimensione predefinita.
+     *
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     * @param threads Numero totale di thread, compreso quello che chiama `chooseMove`.
+     */
+    public LazySmpStrategy(InterfacePlayer player, InterfacePlayer bot, int threads) {
+        this(player, bot, threads, AttackStrategy.DEFAULT_TABLE_MB);
+    }
+
+    /**
+     * Costruttore completo.
+     *
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     * @param threads Numero totale di thread, compreso quello che chiama `chooseMove`.
+     * @param tableSizeMb Memoria della tabella condivisa, in megabyte.
+     */
+    public LazySmpStrategy(InterfacePlayer player, InterfacePlayer bot, int threads, int tableSizeMb) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.bot = bot;
+        this.player = player;
+        this.table = new TranspositionTable(tableSizeMb);
+        this.mainSearch = new MinMaxSearch(player.getPlayerCode(), bot.getPlayerCode(), table);
+
+        helperSearches = new MinMaxSearch[threads - 1];
+        for (int i = 0; i < helperSearches.length; i++) {
+            helperSearches[i] = new MinMaxSearch(player.getPlayerCode(), bot.getPlayerCode(), table,
+                    HELPER_ORDERS[i % HELPER_ORDERS.length]);
+        }
+        if (helperSearches.length > 0) {
+            helpers = Executors.newFixedThreadPool(helperSearches.length, runnable -> {
+                Thread thread = new Thread(runnable, "lazy-smp-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Imposta la profondità massima usata quando non c'è un tempo per mossa.
+     *
+     * @param depth Profondità della ricerca dopo la mossa del bot.
+     */
+    public void setDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be positive");
+        }
+        this.depth = depth;
+    }
+
+    /**
+     * Imposta il tempo massimo per mossa, come `AttackStrategy.setMoveTime`.
+     *
+     * @param millis Tempo per mossa in millisecondi, 0 per la profondità fissa.
+     */
+    public void setMoveTime(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Move time must be non-negative");
+        }
+        this.moveTimeMillis = millis;
+    }
+
+    /**
+     * Restituisce la tabella condivisa, per consultarne il tasso di successo.
+     *
+     * @return La tabella delle trasposizioni.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Sceglie la mossa del bot lanciando la ricerca su tutti i thread, se non c'è
+     * una mossa obbligata (`BitBoard.forcedMove`).
+     *
+     * @param board La griglia di gioco attuale.
+     * @return L'indice della colonna in cui il bot posizionerà la sua pedina.
+     */
+    @Override
+    public int chooseMove(BitBoard board) {
+        int forcedMove = board.forcedMove(bot.getPlayerCode());
+        if (forcedMove >= 0) {
+            return forcedMove;
+        }
+
+        long deadline = moveTimeMillis == 0 ? Long.MAX_VALUE : System.nanoTime() + moveTimeMillis * 1_000_000;
+        int emptyCells = BitBoard.ROWS * BitBoard.COLS - board.getMoveCount();
+        int maxDepth = moveTimeMillis == 0 ? depth : emptyCells - 1;
+        AtomicBoolean stop = new AtomicBoolean();
+
+        // I thread ausiliari cercano su una copia della griglia finché il principale non ha finito
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < helperSearches.length; i++) {
+            MinMaxSearch helper = helperSearches[i];
+            int startDepth = 1 + i % 2;
+            running.add(helpers.submit(() -> {
+                BitBoard copy = new BitBoard(board);
+                helper.start(deadline, stop);
+                for (int d = startDepth; d <= maxDepth && !helper.isAborted(); d++) {
+                    helper.searchRoot(copy, d, TranspositionTable.NO_MOVE);
+                }
+            }));
+        }
+
+        // Mossa di riserva se neanche la prima iterazione riesce a terminare
+        int bestMove = 0;
+        for (int j : BitBoard.CENTER_ORDER) {
+            if (board.canPlay(j)) {
+                bestMove = j;
+                break;
+            }
+        }
+
+        mainSearch.start(deadline);
+        for (int d = 1; d <= maxDepth; d++) {
+            int move = mainSearch.searchRoot(board, d, bestMove);
+            if (mainSearch.isAborted()) {
+                break; // Iterazione incompleta: si tiene la mossa della precedente
+            }
+            bestMove = move;
+        }
+
+        // Ferma gli ausiliari prima della prossima mossa: usano la stessa tabella
+        stop.set(true);
+        try {
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * Arresta i thread ausiliari. Da chiamare quando la strategia non serve più.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
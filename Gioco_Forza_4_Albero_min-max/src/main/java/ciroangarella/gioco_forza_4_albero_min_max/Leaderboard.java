@@ -0,0 +1,358 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * @class Leaderboard
+ * @brief Classifica dei vincitori, indicizzata per ID e mantenuta in ordine di vittorie.
+ *
+ * Le vittorie sono contatori `LongAdder` in una `ConcurrentHashMap` per ID: più partite
+ * che finiscono insieme le contano esattamente senza un lock comune (vedi `addWin`).
+ * L'ordine di classifica è un `TreeSet` ordinato per vittorie (decrescenti) e poi per ID,
+ * aggiornato solo quando viene letto: `addWin` segna il giocatore come cambiato e `top`
+ * (o la scrittura del file) riporta nell'albero i giocatori cambiati, O(log n) ciascuno,
+ * poi legge le prime posizioni senza ordinare l'intera classifica.
+ *
+ * Il file è binario: `MAGIC` (int), `VERSION` (byte), il numero di vincitori (int) e
+ * per ciascuno ID (`writeUTF`) e vittorie (int), in ordine di classifica. Viene scritto
+ * dal `PersistenceService` in un file temporaneo poi rinominato al posto del precedente;
+ * finché un'istantanea è in attesa le nuove vittorie non ne accodano altre, quindi le
+ * scritture seguono il ritmo del disco e non quello delle partite. Se il file non esiste ma
+ * accanto c'è il vecchio `rank.json`, questo viene importato.
+ *
+ * La classe implementa il pattern Singleton, come `SaveHandler`.
+ */
+public class Leaderboard {
+
+    private static Leaderboard instance; ///< L'istanza Singleton.
+
+    public static final String RANK_FILE_PROPERTY = "forza4.rankFile"; ///< Proprietà di sistema che sostituisce il percorso della classifica.
+    static final String DEFAULT_RANK_FILE = "src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/rank.bin"; ///< Percorso predefinito della classifica.
+    static final String LEGACY_FILE_NAME = "rank.json"; ///< Nome della vecchia classifica JSON, cercata nella stessa cartella.
+
+    static final int MAGIC = 0x46344C42; ///< "F4LB", primi quattro byte del file della classifica.
+    static final int VERSION = 1; ///< Versione del formato del file.
+
+    /**
+     * @brief Ordine della classifica: più vittorie prima, a parità di vittorie per ID.
+     */
+    static final Comparator<Winner> RANK_ORDER = Comparator.comparingInt(Winner::getWin).reversed()
+            .thenComparing(Winner::getId);
+
+    private String filePath; ///< Percorso del file della classifica.
+    private Map<String, LongAdder> wins = new ConcurrentHashMap<>(); ///< Vittorie per ID, aggiornate senza lock.
+    private Set<String> changed = ConcurrentHashMap.newKeySet(); ///< ID con vittorie non ancora riportate in `ranking`.
+    private AtomicBoolean snapshotPending = new AtomicBoolean(); ///< Indica se una scrittura del file è già in coda.
+    private Map<String, Winner> index = new HashMap<>(); ///< Vincitori in `ranking` per ID, protetti dal lock dell'oggetto.
+    private TreeSet<Winner> ranking = new TreeSet<>(RANK_ORDER); ///< Gli stessi vincitori in ordine di classifica.
+    private PersistenceService persistence; ///< Thread di scrittura, assegnato alla fine del costruttore.
+
+    /**
+     * @brief Costruttore privato per prevenire l'istanziamento dall'esterno.
+     *
+     * Usa il percorso predefinito, oppure la proprietà di sistema `RANK_FILE_PROPERTY`
+     * se impostata.
+     */
+    private Leaderboard() {
+        this(System.getProperty(RANK_FILE_PROPERTY, DEFAULT_RANK_FILE));
+    }
+
+    /**
+     * @brief Costruttore che carica la classifica da un percorso qualsiasi.
+     *
+     * Un file danneggiato viene segnalato nel log e ignorato.
+     *
+     * @param filePath Il percorso del file binario della classifica.
+     */
+    Leaderboard(String filePath) {
+        this.filePath = filePath;
+        Path path = Paths.get(filePath);
+        Path legacy = path.resolveSibling(LEGACY_FILE_NAME);
+        boolean imported = false;
+        try {
+            if (Files.exists(path)) {
+                read(Files.readAllBytes(path));
+            } else if (Files.exists(legacy)) {
+                importJson(legacy);
+                imported = true;
+            }
+        } catch (IOException | RuntimeException ex) {
+            Logger.getLogger(Leaderboard.class.getName()).log(Level.SEVERE, null, ex);
+            wins.clear();
+            changed.clear();
+        }
+
+        persistence = PersistenceService.getInstance();
+        if (imported) {
+            schedule();
+        }
+    }
+
+    /**
+     * @brief Metodo pubblico per ottenere l'istanza del Singleton.
+     *
+     * @return L'istanza di `Leaderboard`.
+     */
+    public static synchronized Leaderboard getInstance() {
+        if (instance == null) {
+            instance = new Leaderboard();
+        }
+        return instance;
+    }
+
+    /**
+     * @brief Legge il file binario della classifica.
+     *
+     * @param data I byte del file.
+     * @throws IOException Se il file non è una classifica valida.
+     */
+    private void read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (data.length < 9 || in.readInt() != MAGIC) {
+            throw new IOException(filePath + " is not a leaderboard file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported leaderboard version " + version + " in " + filePath);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String id = in.readUTF();
+            put(id, in.readInt());
+        }
+    }
+
+    /**
+     * @brief Importa la vecchia classifica JSON, una riga `{"id": "...", "win": n}` per vincitore.
+     *
+     * @param legacy Il file JSON.
+     * @throws IOException Se il file non può essere letto.
+     */
+    private void importJson(Path legacy) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(legacy, StandardCharsets.UTF_8)) {
+            String readedLine;
+            while ((readedLine = reader.readLine()) != null) {
+                readedLine = readedLine.trim(); // Rimuove spazi vuoti.
+                if (readedLine.startsWith("[") || readedLine.endsWith("]")) {
+                    continue; // Ignora linee non rilevanti.
+                }
+                put(parseId(readedLine), parseWin(readedLine));
+            }
+        }
+    }
+
+    /**
+     * @brief Inserisce un vincitore letto da file, sommando le vittorie se l'ID è ripetuto.
+     *
+     * @param id L'ID del vincitore.
+     * @param count Le sue vittorie.
+     */
+    private void put(String id, int count) {
+        wins.computeIfAbsent(id, key -> new LongAdder()).add(count);
+        changed.add(id);
+    }
+
+    /**
+     * @brief Aggiunge una vittoria a un giocatore, inserendolo se non è in classifica.
+     *
+     * Può essere chiamato da più thread insieme senza perdere vittorie e senza un lock
+     * comune: il contatore è un `LongAdder` e l'ordine di classifica viene aggiornato alla
+     * lettura successiva. La scrittura del file viene accodata al `PersistenceService`
+     * solo se non ce n'è già una in attesa.
+     *
+     * @param id L'ID del vincitore.
+     * @return Le vittorie del giocatore dopo l'aggiornamento (con più thread sullo stesso
+     * giocatore può comprendere anche le loro).
+     */
+    public int addWin(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id must not be null");
+        }
+        LongAdder counter = wins.computeIfAbsent(id, key -> new LongAdder());
+        counter.increment();
+        changed.add(id); // Dopo l'incremento: chi toglie l'ID da `changed` poi vede la vittoria
+        schedule();
+        return (int) counter.sum();
+    }
+
+    /**
+     * @brief Riporta in `ranking` le vittorie dei giocatori cambiati dall'ultima lettura.
+     *
+     * Costa O(log n) per giocatore cambiato. Va chiamato tenendo il lock dell'oggetto.
+     */
+    private void updateRanking() {
+        for (String id : changed) {
+            changed.remove(id); // Prima di leggere il contatore: una vittoria successiva lo rimette
+            int count = (int) wins.get(id).sum();
+            Winner winner = index.get(id);
+            if (winner == null) {
+                winner = new Winner(id);
+                index.put(id, winner);
+            } else {
+                ranking.remove(winner); // Va tolto prima di cambiare la chiave di ordinamento
+            }
+            winner.setWin(count);
+            ranking.add(winner);
+        }
+    }
+
+    /**
+     * @brief Restituisce una pagina della classifica.
+     *
+     * Costa O(offset + limit), indipendentemente dal numero di giocatori.
+     *
+     * @param offset Le posizioni da saltare (0 per partire dal primo).
+     * @param limit Il numero massimo di vincitori da restituire.
+     * @return Copie dei vincitori, in ordine di classifica.
+     */
+    public synchronized List<Winner> top(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must be non-negative");
+        }
+        updateRanking();
+        List<Winner> page = new ArrayList<>(Math.min(limit, Math.max(0, ranking.size() - offset)));
+        int position = 0;
+        for (Winner winner : ranking) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (position++ >= offset) {
+                page.add(copy(winner));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * @brief Restituisce le vittorie di un giocatore.
+     *
+     * @param id L'ID del giocatore.
+     * @return Le sue vittorie, 0 se non è in classifica.
+     */
+    public int getWins(String id) {
+        LongAdder counter = wins.get(id);
+        return counter == null ? 0 : (int) counter.sum();
+    }
+
+    /**
+     * @brief Restituisce il numero di giocatori in classifica.
+     *
+     * @return I giocatori con almeno una vittoria.
+     */
+    public int size() {
+        return wins.size();
+    }
+
+    /**
+     * @brief Aspetta che la classifica sia su disco.
+     */
+    public void flush() {
+        persistence.flush();
+    }
+
+    /**
+     * @brief Copia un vincitore, per non esporre gli oggetti ordinati nell'albero.
+     *
+     * @param winner Il vincitore.
+     * @return Un vincitore con lo stesso ID e le stesse vittorie.
+     */
+    private static Winner copy(Winner winner) {
+        Winner copy = new Winner(winner.getId());
+        copy.setWin(winner.getWin());
+        return copy;
+    }
+
+    /**
+     * @brief Chiede al `PersistenceService` di scrivere la classifica, se non è già in coda.
+     */
+    private void schedule() {
+        if (persistence != null && snapshotPending.compareAndSet(false, true)) {
+            persistence.submit(filePath, this::writeFile);
+        }
+    }
+
+    /**
+     * @brief Scrive la classifica nel file. Eseguito dal thread di scrittura.
+     *
+     * La classifica viene aggiornata e copiata sotto il lock e scritta fuori, in un file
+     * temporaneo reso persistente e poi rinominato al posto del precedente. Le vittorie
+     * arrivate dopo la copia accodano una nuova scrittura.
+     */
+    private void writeFile() {
+        snapshotPending.set(false);
+        List<Winner> snapshot;
+        synchronized (this) {
+            updateRanking();
+            snapshot = new ArrayList<>(ranking.size());
+            for (Winner winner : ranking) {
+                snapshot.add(copy(winner));
+            }
+        }
+
+        Path temp = Paths.get(filePath + ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(snapshot.size());
+                for (Winner winner : snapshot) {
+                    out.writeUTF(winner.getId());
+                    out.writeInt(winner.getWin());
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temp, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Logger.getLogger(Leaderboard.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * @brief Estrae l'ID di un giocatore da una riga del vecchio JSON.
+     *
+     * @param line Linea da cui estrarre l'ID.
+     * @return ID estratto dalla stringa.
+     */
+    private static String parseId(String line) {
+        int startIndex = line.indexOf("\"id\":") + 8;
+        int endIndex = line.indexOf(",", startIndex);
+        return line.substring(startIndex - 1, endIndex - 1).trim();
+    }
+
+    /**
+     * @brief Estrae il numero di vittorie di un giocatore da una riga del vecchio JSON.
+     *
+     * @param line Linea da cui estrarre il numero di vittorie.
+     * @return Numero di vittorie estratto dalla stringa.
+     */
+    private static int parseWin(String line) {
+        int startIndex = line.indexOf("\"win\":") + 6;
+        int endIndex = line.indexOf("}", startIndex);
+        return Integer.parseInt(line.substring(startIndex, endIndex).trim());
+    }
+}
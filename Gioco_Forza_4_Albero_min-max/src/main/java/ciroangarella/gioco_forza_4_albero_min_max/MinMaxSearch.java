@@ -0,0 +1,544 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @class MinMaxSearch
+ * @brief Ricerca Minimax con potatura alfa-beta usata dalle strategie del bot.
+ *
+ * Contiene lo stato di una singola ricerca (nodi visitati, scadenza, ordine delle mosse):
+ * ogni thread che cerca in parallelo deve avere la propria istanza. La tabella delle
+ * trasposizioni invece può essere condivisa tra più istanze.
+ * I punteggi sono dal punto di vista del bot: una vittoria vale `WIN_SCORE` più la
+ * profondità residua (quindi più è vicina più vale), una sconfitta l'opposto. Le posizioni
+ * non concluse all'orizzonte sono valutate con `BitBoard.evaluate`, sempre in modulo
+ * minore di `WIN_SCORE`.
+ */
+class MinMaxSearch {
+
+    static final int WIN_SCORE = 1000;  ///< Punteggio base di una vittoria, maggiore di ogni valutazione euristica.
+    static final int INFINITY = 10000;  ///< Limite superiore di ogni punteggio.
+
+    private static final int CLOCK_CHECK_MASK = 1023;  ///< Il tempo viene controllato una volta ogni 1024 nodi.
+    private static final int CELLS = BitBoard.ROWS * BitBoard.COLS;  ///< Numero di celle della griglia.
+
+    private int playerCode;  ///< Codice del giocatore umano.
+    private int botCode;  ///< Codice del bot.
+    private TranspositionTable table;  ///< Posizioni già valutate, condivise tra una mossa e l'altra.
+    private int[] order;  ///< Ordine in cui provare le colonne.
+    private AtomicBoolean stopSignal;  ///< Segnale di arresto esterno, o `null`.
+    private long deadline = Long.MAX_VALUE;  ///< Istante (System.nanoTime) entro cui la ricerca deve terminare.
+    private long nodes;  ///< Nodi visitati dall'ultima chiamata a `start`.
+    private long cutoffs;  ///< Nodi terminati con un taglio alfa-beta dall'ultima chiamata a `start`.
+    private long firstMoveCutoffs;  ///< Tagli causati dalla prima colonna provata.
+    private long tableProbes;  ///< Ricerche nella tabella delle trasposizioni dall'ultima chiamata a `start`.
+    private long tableHits;  ///< Ricerche nella tabella andate a buon fine dall'ultima chiamata a `start`.
+    private int completedDepth;  ///< Profondità dell'ultima `searchRoot` completata.
+    private int lastScore;  ///< Punteggio della mossa scelta dall'ultima `searchRoot`.
+    private boolean aborted;  ///< Indica se la ricerca è stata interrotta per scadenza del tempo.
+    private boolean principalVariation;  ///< Indica se cercare le colonne dopo la prima con finestra nulla (PVS).
+    private boolean heuristicOrdering = true;  ///< Indica se usare mosse killer e storia per ordinare le colonne.
+    private int[][] moveLists = new int[CELLS + 1][BitBoard.COLS];  ///< Colonne da provare a ogni livello, per non allocare.
+    private int[][] killers = new int[CELLS + 1][2];  ///< Per ogni livello, le ultime due colonne che hanno causato un taglio.
+    private int[][] history = new int[2][BitBoard.COLS * BitBoard.ROWS];  ///< Per chi muove e per cella, il peso dei tagli causati.
+
+    /**
+     * Costruttore della ricerca.
+     * 
+     * @param playerCode Codice del giocatore umano.
+     * @param botCode Codice del bot.
+     * @param table Tabella delle trasposizioni da usare.
+     */
+    MinMaxSearch(int playerCode, int botCode, TranspositionTable table) {
+        this(playerCode, botCode, table, BitBoard.CENTER_ORDER);
+    }
+
+    /**
+     * Costruttore della ricerca con un ordine delle colonne personalizzato.
+     * 
+     * @param playerCode Codice del giocatore umano.
+     * @param botCode Codice del bot.
+     * @param table Tabella delle trasposizioni da usare.
+     * @param order Le sette colonne, nell'ordine in cui provarle.
+     */
+    MinMaxSearch(int playerCode, int botCode, TranspositionTable table, int[] order) {
+        this.playerCode = playerCode;
+        this.botCode = botCode;
+        this.table = table;
+        this.order = order;
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, TranspositionTable.NO_MOVE);
+        }
+    }
+
+    /**
+     * Attiva o disattiva la Principal Variation Search.
+     * 
+     * Con la PVS solo la prima colonna di ogni nodo viene cercata con la finestra completa;
+     * per le altre una ricerca a finestra nulla verifica che non siano migliori, e solo
+     * se lo sono la ricerca viene ripetuta. Con un buon ordinamento delle mosse le
+     * ripetizioni sono rare e i nodi visitati calano. Il risultato non cambia.
+     * 
+     * @param enabled `true` per usare la PVS, `false` (predefinito) per l'alfa-beta classico.
+     */
+    void setPrincipalVariation(boolean enabled) {
+        this.principalVariation = enabled;
+    }
+
+    /**
+     * Attiva o disattiva l'ordinamento adattivo delle colonne.
+     * 
+     * Disattivato, le colonne si provano nell'ordine fisso della ricerca dopo la mossa
+     * della tabella: serve a misurare quanti nodi fanno risparmiare killer e storia.
+     * 
+     * @param enabled `true` (predefinito) per usare mosse killer e storia.
+     */
+    void setHeuristicOrdering(boolean enabled) {
+        this.heuristicOrdering = enabled;
+    }
+
+    /**
+     * Prepara una nuova ricerca azzerando i contatori.
+     * 
+     * @param deadline Istante (System.nanoTime) oltre il quale interrompere la ricerca,
+     * `Long.MAX_VALUE` per nessun limite.
+     */
+    void start(long deadline) {
+        start(deadline, null);
+    }
+
+    /**
+     * Prepara una nuova ricerca che si interrompe anche quando un altro thread
+     * imposta il segnale di arresto.
+     * 
+     * @param deadline Istante (System.nanoTime) oltre il quale interrompere la ricerca,
+     * `Long.MAX_VALUE` per nessun limite.
+     * @param stopSignal Segnale di arresto condiviso, o `null`.
+     */
+    void start(long deadline, AtomicBoolean stopSignal) {
+        this.deadline = deadline;
+        this.stopSignal = stopSignal;
+        this.nodes = 0;
+        this.cutoffs = 0;
+        this.firstMoveCutoffs = 0;
+        this.tableProbes = 0;
+        this.tableHits = 0;
+        this.completedDepth = 0;
+        this.aborted = false;
+
+        // La storia delle mosse precedenti resta utile, ma pesa la metà di quella nuova
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Indica se la ricerca è stata interrotta: in tal caso i risultati vanno scartati.
+     * 
+     * @return `true` se il tempo è scaduto durante la ricerca.
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Restituisce i nodi visitati dall'ultima chiamata a `start`.
+     * 
+     * @return Il numero di nodi.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Restituisce i nodi terminati con un taglio alfa-beta dall'ultima chiamata a `start`.
+     * 
+     * @return Il numero di tagli.
+     */
+    long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Restituisce i tagli causati dalla prima colonna provata: rispetto a `getCutoffs`
+     * misura la qualità dell'ordinamento delle mosse.
+     * 
+     * @return Il numero di tagli alla prima colonna.
+     */
+    long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Restituisce le ricerche nella tabella delle trasposizioni dall'ultima chiamata a `start`.
+     * A differenza di `TranspositionTable.getProbes` non conta le ricerche degli altri
+     * utenti della tabella, come il pondering.
+     * 
+     * @return Il numero di ricerche.
+     */
+    long getTableProbes() {
+        return tableProbes;
+    }
+
+    /**
+     * Restituisce le ricerche nella tabella andate a buon fine dall'ultima chiamata a `start`.
+     * 
+     * @return Il numero di posizioni trovate.
+     */
+    long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * Restituisce la profondità dell'ultima `searchRoot` terminata senza interruzioni
+     * dall'ultima chiamata a `start`.
+     * 
+     * @return La profondità dopo la mossa del bot, 0 se nessuna ricerca è terminata.
+     */
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Restituisce il punteggio della mossa scelta dall'ultima `searchRoot`.
+     * 
+     * @return Il punteggio dal punto di vista del bot.
+     */
+    int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Restituisce la tabella delle trasposizioni usata dalla ricerca.
+     * 
+     * @return La tabella.
+     */
+    TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Valuta tutte le colonne disponibili con una ricerca alla profondità indicata.
+     * 
+     * Le colonne vengono provate nell'ordine della ricerca (dopo `firstMove`, se valida),
+     * ma a parità di punteggio vince sempre la colonna con indice minore: la mossa scelta
+     * è quindi identica a quella del Minimax completo alla stessa profondità.
+     * 
+     * @param board La griglia di gioco attuale.
+     * @param depth Profondità della ricerca dopo la mossa del bot.
+     * @param firstMove Colonna da provare per prima, o `TranspositionTable.NO_MOVE`.
+     * @return La colonna migliore trovata.
+     */
+    int searchRoot(BitBoard board, int depth, int firstMove) {
+        return searchRoot(board, depth, firstMove, -INFINITY, INFINITY);
+    }
+
+    /**
+     * Valuta tutte le colonne disponibili cercando solo punteggi dentro una finestra.
+     * 
+     * Se `getLastScore` è compreso strettamente tra `windowAlpha` e `windowBeta` la mossa
+     * è la stessa della finestra completa; altrimenti il punteggio è solo un limite
+     * (superiore o inferiore) e la ricerca va ripetuta con una finestra più larga.
+     * 
+     * @param board La griglia di gioco attuale.
+     * @param depth Profondità della ricerca dopo la mossa del bot.
+     * @param firstMove Colonna da provare per prima, o `TranspositionTable.NO_MOVE`.
+     * @param windowAlpha Limite inferiore della finestra.
+     * @param windowBeta Limite superiore della finestra.
+     * @return La colonna migliore trovata.
+     */
+    int searchRoot(BitBoard board, int depth, int firstMove, int windowAlpha, int windowBeta) {
+        int bestMove = 0;
+        int bestScore = -INFINITY;
+        int moveScore;
+        boolean first = true;
+
+        // Loop per valutare ogni colonna disponibile, nell'ordine della ricerca
+        for (int i = -1; i < BitBoard.COLS; i++) {
+            int j = i < 0 ? firstMove : order[i];
+            // Verifica se la colonna è piena
+            if ((i >= 0 && j == firstMove) || j == TranspositionTable.NO_MOVE || !board.canPlay(j)) {
+                continue;
+            }
+
+            // Una colonna più a sinistra della migliore vince anche a pari punteggio,
+            // quindi per lei la finestra deve includere bestScore
+            int alpha = Math.max(windowAlpha, j < bestMove ? bestScore - 1 : bestScore);
+
+            board.play(j, botCode);
+            if (principalVariation && !first) {
+                // Basta sapere se la colonna supera alpha; solo in quel caso serve il valore esatto
+                moveScore = minmax(depth, false, board, alpha, alpha + 1);
+                if (moveScore > alpha && moveScore < windowBeta) {
+                    moveScore = minmax(depth, false, board, alpha, windowBeta);
+                }
+            } else {
+                moveScore = minmax(depth, false, board, alpha, windowBeta);
+            }
+            board.undo(j);
+            first = false;
+
+            if (aborted) {
+                break;
+            }
+
+            // Aggiornamento della migliore mossa e del punteggio
+            if (moveScore > bestScore || (moveScore == bestScore && j < bestMove)) {
+                bestScore = moveScore;
+                bestMove = j;
+            }
+            if (bestScore >= windowBeta) {
+                break; // Fuori dalla finestra: il chiamante ripeterà la ricerca
+            }
+        }
+
+        lastScore = bestScore;
+        if (!aborted) {
+            completedDepth = depth;
+        }
+        return bestMove;
+    }
+
+    /**
+     * Algoritmo Minimax con potatura alfa-beta (fail-soft).
+     * 
+     * Se il valore restituito è compreso strettamente tra alpha e beta è esatto,
+     * altrimenti è un limite superiore (&lt;= alpha) o inferiore (&gt;= beta).
+     * 
+     * @param depth Profondità massima della ricerca.(un numero elevato crea un calo di perfomance )
+     * @param isBotTurn Indica se è il turno del bot.
+     * @param board La griglia di gioco attuale.
+     * @param alpha Punteggio minimo già garantito al bot.
+     * @param beta Punteggio massimo già garantito al giocatore.
+     * @return Il punteggio migliore trovato.
+     */
+    int minmax(int depth, boolean isBotTurn, BitBoard board, int alpha, int beta) {
+
+        // Tempo scaduto o arresto richiesto: il valore non conta, l'iterazione verrà scartata
+        if ((++nodes & CLOCK_CHECK_MASK) == 0
+                && (System.nanoTime() > deadline || (stopSignal != null && stopSignal.get()))) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        // Caso base: vittoria di chi ha appena mosso (solo lui può aver completato una linea)
+        if (isBotTurn) {
+            if (board.checkForWin(playerCode) == 1) {
+                return -WIN_SCORE - depth;
+            }
+        } else if (board.checkForWin(botCode) == 1) {
+            return WIN_SCORE + depth;
+        }
+
+        // Griglia piena: pareggio
+        if (board.isFull()) {
+            return 0;
+        }
+
+        // Orizzonte raggiunto: valutazione euristica della posizione
+        if (depth == 0) {
+            return botCode == 1 ? board.evaluate() : -board.evaluate();
+        }
+
+        // Posizione già cercata alla stessa profondità: si riusa il risultato
+        // La chiave canonica unisce la posizione e la sua riflessione; la mossa va riportata
+        // nell'orientamento della griglia
+        long entry = table.probe(board.getCanonicalHash());
+        int ttMove = TranspositionTable.NO_MOVE;
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        tableProbes++;
+        if (entry != 0) {
+            tableHits++;
+            ttMove = board.canonicalColumn(TranspositionTable.getMove(entry));
+            if (TranspositionTable.getDepth(entry) == depth) {
+                int score = TranspositionTable.getScore(entry);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT) {
+                    return score;
+                } else if (bound == TranspositionTable.LOWER) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        int bestScore;
+        int bestMove = TranspositionTable.NO_MOVE;
+
+        int count = orderMoves(board, ttMove);
+        int[] moves = moveLists[board.getMoveCount()];
+
+        //---------------------------------------------------------------------
+        // Turno del bot
+        if (isBotTurn) {
+            bestScore = -INFINITY;
+            for (int i = 0; i < count; i++) {
+                int j = moves[i];
+                board.play(j, botCode);
+                int score;
+                if (principalVariation && i > 0) {
+                    // Finestra nulla: si verifica solo che la colonna non superi la prima
+                    score = minmax(depth - 1, !isBotTurn, board, alpha, alpha + 1);
+                    if (score > alpha && score < beta) {
+                        score = minmax(depth - 1, !isBotTurn, board, alpha, beta);
+                    }
+                } else {
+                    score = minmax(depth - 1, !isBotTurn, board, alpha, beta);
+                }
+                board.undo(j);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = j;
+                }
+                alpha = Math.max(alpha, bestScore);
+                if (alpha >= beta) {
+                    recordCutoff(board, j, depth, i);
+                    break; // Il giocatore non permetterà mai di arrivare qui
+                }
+            }
+        } else {
+            // Turno del giocatore
+            bestScore = INFINITY;
+            for (int i = 0; i < count; i++) {
+                int j = moves[i];
+                board.play(j, playerCode);
+                int score;
+                if (principalVariation && i > 0) {
+                    score = minmax(depth - 1, !isBotTurn, board, beta - 1, beta);
+                    if (score < beta && score > alpha) {
+                        score = minmax(depth - 1, !isBotTurn, board, alpha, beta);
+                    }
+                } else {
+                    score = minmax(depth - 1, !isBotTurn, board, alpha, beta);
+                }
+                board.undo(j);
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestMove = j;
+                }
+                beta = Math.min(beta, bestScore);
+                if (alpha >= beta) {
+                    recordCutoff(board, j, depth, i);
+                    break; // Il bot ha già una mossa migliore altrove
+                }
+            }
+        }
+
+        if (aborted) {
+            return bestScore; // Risultato parziale, non va salvato nella tabella
+        }
+
+        int bound;
+        if (bestScore <= alphaOrig) {
+            bound = TranspositionTable.UPPER;
+        } else if (bestScore >= betaOrig) {
+            bound = TranspositionTable.LOWER;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        table.store(board.getCanonicalHash(), depth, bestScore, bound, board.canonicalColumn(bestMove));
+        return bestScore;
+    }
+
+    /**
+     * Prepara la lista delle colonne da provare in una posizione.
+     * 
+     * Prima la mossa migliore salvata nella tabella, poi le due mosse killer del livello
+     * (colonne che hanno già causato un taglio in posizioni sorelle), infine le altre in
+     * ordine decrescente di storia; a pari storia vale l'ordine della ricerca.
+     * 
+     * @param board La posizione attuale.
+     * @param ttMove La mossa della tabella delle trasposizioni, o `TranspositionTable.NO_MOVE`.
+     * @return Il numero di colonne in `moveLists[board.getMoveCount()]`.
+     */
+    private int orderMoves(BitBoard board, int ttMove) {
+        int ply = board.getMoveCount();
+        int[] moves = moveLists[ply];
+        int count = 0;
+        if (ttMove != TranspositionTable.NO_MOVE && board.canPlay(ttMove)) {
+            moves[count++] = ttMove;
+        }
+        if (!heuristicOrdering) {
+            for (int j : order) {
+                if (j != ttMove && board.canPlay(j)) {
+                    moves[count++] = j;
+                }
+            }
+            return count;
+        }
+
+        for (int killer : killers[ply]) {
+            if (killer != TranspositionTable.NO_MOVE && board.canPlay(killer) && !contains(moves, count, killer)) {
+                moves[count++] = killer;
+            }
+        }
+        int ordered = count;
+
+        int[] sideHistory = history[ply % 2];
+        for (int j : order) {
+            if (!board.canPlay(j) || contains(moves, ordered, j)) {
+                continue;
+            }
+            int value = sideHistory[j * BitBoard.ROWS + board.getHeight(j)];
+            int i = count++;
+            while (i > ordered && sideHistory[moves[i - 1] * BitBoard.ROWS + board.getHeight(moves[i - 1])] < value) {
+                moves[i] = moves[i - 1];
+                i--;
+            }
+            moves[i] = j;
+        }
+        return count;
+    }
+
+    /**
+     * Conta il taglio e aggiorna mosse killer e storia.
+     * 
+     * @param board La posizione in cui è avvenuto il taglio (con la mossa già annullata).
+     * @param col La colonna che ha causato il taglio.
+     * @param depth La profondità residua: i tagli vicini alla radice pesano di più.
+     * @param index La posizione della colonna nella lista delle mosse provate.
+     */
+    private void recordCutoff(BitBoard board, int col, int depth, int index) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+        if (!heuristicOrdering) {
+            return;
+        }
+        int ply = board.getMoveCount();
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != col) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = col;
+        }
+        history[ply % 2][col * BitBoard.ROWS + board.getHeight(col)] += depth * depth;
+    }
+
+    /**
+     * Indica se una colonna è tra le prime `length` della lista.
+     * 
+     * @param moves La lista delle colonne.
+     * @param length Il numero di colonne da controllare.
+     * @param col La colonna cercata.
+     * @return `true` se la colonna è presente.
+     */
+    private static boolean contains(int[] moves, int length, int col) {
+        for (int i = 0; i < length; i++) {
+            if (moves[i] == col) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,265 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * @class MoveJournal
+ * @brief Giornale append-only delle modifiche al salvataggio successive all'ultima istantanea.
+ *
+ * Ogni mossa aggiunge in coda un record di pochi byte invece di riscrivere l'intero
+ * salvataggio; i record accumulati mentre il disco è occupato vengono scritti insieme
+ * con un solo `force` (vedi `append`). All'avvio `SaveHandler` carica l'istantanea
+ * (`save.bin`) e rigioca il giornale; ogni `SaveHandler.COMPACT_RECORDS` record, e a ogni
+ * `writeFile`, lo compatta in una nuova istantanea e poi lo svuota con `reset`.
+ *
+ * Il file inizia con un'intestazione fissa: `MAGIC` (int), `VERSION` (byte) e la
+ * generazione dell'istantanea a cui si riferisce (long). Un giornale con una generazione
+ * diversa da quella dell'istantanea è già compreso in essa (il programma si è fermato
+ * tra la scrittura dell'istantanea e lo svuotamento del giornale) e viene ignorato.
+ *
+ * Ogni record è il tipo (byte), i dati del tipo e il CRC32 di tipo e dati (int):
+ *
+ * - `MOVE`: colonna e codice del giocatore (7 byte in tutto);
+ * - `UNDO`: colonna (6 byte);
+ * - `CLEAR`: nessun dato (5 byte);
+ * - `NAME`: chiave e valore con `writeUTF`.
+ *
+ * La rilettura si ferma al primo record incompleto, con il CRC sbagliato o non
+ * applicabile (una scrittura interrotta); il file viene troncato lì e le nuove
+ * scritture continuano da quel punto.
+ */
+class MoveJournal {
+
+    static final int MAGIC = 0x46344A52; ///< "F4JR", primi quattro byte di ogni giornale.
+    static final int VERSION = 1; ///< Versione del formato dei record.
+    private static final int HEADER_SIZE = 13; ///< Byte dell'intestazione: magic, versione e generazione.
+
+    static final int MOVE = 1; ///< Record di una pedina inserita.
+    static final int UNDO = 2; ///< Record di una mossa annullata.
+    static final int CLEAR = 3; ///< Record della griglia svuotata per una nuova partita.
+    static final int NAME = 4; ///< Record di un nome salvato.
+
+    private FileChannel channel; ///< Canale aperto sul file, posizionato alla fine dei record validi.
+    private int records; ///< Record validi dopo l'intestazione.
+
+    /**
+     * @brief Costruttore che apre (o crea) il giornale senza leggerlo.
+     *
+     * @param path Il file del giornale.
+     * @throws IOException Se il file non può essere aperto.
+     */
+    MoveJournal(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @brief Rigioca i record sul salvataggio appena caricato.
+     *
+     * Se il giornale è vuoto, danneggiato nell'intestazione o di un'altra generazione
+     * viene svuotato con `reset`.
+     *
+     * @param generation La generazione dell'istantanea caricata.
+     * @param save Il salvataggio su cui applicare i record.
+     * @return Il numero di record rigiocati.
+     * @throws IOException Se il file non può essere letto o scritto.
+     */
+    int replay(long generation, SaveHandler save) throws IOException {
+        byte[] data = new byte[(int) channel.size()];
+        channel.read(ByteBuffer.wrap(data), 0);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+        if (data.length < HEADER_SIZE || in.readInt() != MAGIC || in.readUnsignedByte() != VERSION
+                || in.readLong() != generation) {
+            reset(generation);
+            return 0;
+        }
+
+        int valid = HEADER_SIZE;
+        records = 0;
+        CRC32 crc = new CRC32();
+        try {
+            while (in.available() > 0) {
+                // Legge il record
+                int type = in.readUnsignedByte();
+                int col = 0;
+                int playerCode = 0;
+                String key = null;
+                String value = null;
+                if (type == MOVE) {
+                    col = in.readUnsignedByte();
+                    playerCode = in.readUnsignedByte();
+                } else if (type == UNDO) {
+                    col = in.readUnsignedByte();
+                } else if (type == NAME) {
+                    key = in.readUTF();
+                    value = in.readUTF();
+                } else if (type != CLEAR) {
+                    break;
+                }
+                int end = data.length - in.available();
+                crc.reset();
+                crc.update(data, valid, end - valid);
+                if (in.readInt() != (int) crc.getValue()) {
+                    break;
+                }
+
+                // Lo applica al salvataggio
+                if (type == MOVE) {
+                    save.applyMove(col, playerCode);
+                } else if (type == UNDO) {
+                    save.applyUndo(col);
+                } else if (type == NAME) {
+                    save.applyName(key, value);
+                } else {
+                    save.applyClear();
+                }
+                valid = data.length - in.available();
+                records++;
+            }
+        } catch (EOFException | IllegalArgumentException ex) {
+            // Record incompleto o non applicabile: fine dei dati validi
+        }
+
+        channel.truncate(valid);
+        channel.position(valid);
+        return records;
+    }
+
+    /**
+     * @brief Svuota il giornale e lo lega a una nuova istantanea.
+     *
+     * @param generation La generazione dell'istantanea appena scritta.
+     * @throws IOException Se il file non può essere scritto.
+     */
+    void reset(long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).put((byte) VERSION).putLong(generation).flip();
+        channel.truncate(0);
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(false);
+        records = 0;
+    }
+
+    /**
+     * @brief Codifica il record di una pedina inserita.
+     *
+     * @param col La colonna.
+     * @param playerCode Il codice del giocatore.
+     * @return Il record, CRC compreso.
+     */
+    static byte[] moveRecord(int col, int playerCode) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(7);
+        bytes.write(MOVE);
+        bytes.write(col);
+        bytes.write(playerCode);
+        return seal(bytes);
+    }
+
+    /**
+     * @brief Codifica il record di una mossa annullata.
+     *
+     * @param col La colonna da cui è stata tolta la pedina.
+     * @return Il record, CRC compreso.
+     */
+    static byte[] undoRecord(int col) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(6);
+        bytes.write(UNDO);
+        bytes.write(col);
+        return seal(bytes);
+    }
+
+    /**
+     * @brief Codifica il record della griglia svuotata.
+     *
+     * @return Il record, CRC compreso.
+     */
+    static byte[] clearRecord() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(5);
+        bytes.write(CLEAR);
+        return seal(bytes);
+    }
+
+    /**
+     * @brief Codifica il record di un nome salvato.
+     *
+     * @param key L'ID del nome.
+     * @param value Il nome.
+     * @return Il record, CRC compreso.
+     */
+    static byte[] nameRecord(String key, String value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(NAME);
+            out.writeUTF(key);
+            out.writeUTF(value);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Name too long", ex); // Solo se supera i 64 KB di `writeUTF`
+        }
+        return seal(bytes);
+    }
+
+    /**
+     * @brief Completa un record con il CRC32 dei suoi byte.
+     *
+     * @param bytes Tipo e dati del record.
+     * @return Il record completo.
+     */
+    private static byte[] seal(ByteArrayOutputStream bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        int value = (int) crc.getValue();
+        bytes.write(value >>> 24);
+        bytes.write(value >>> 16);
+        bytes.write(value >>> 8);
+        bytes.write(value);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @brief Scrive in coda un gruppo di record e li rende persistenti con un solo `force`.
+     *
+     * @param data I record, uno dopo l'altro, codificati con i metodi `...Record`.
+     * @param count Il numero di record.
+     * @throws IOException Se i record non possono essere scritti.
+     */
+    void append(byte[] data, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        records += count;
+    }
+
+    /**
+     * @brief Restituisce il numero di record dopo l'ultima istantanea.
+     *
+     * @return I record rigiocati all'avvio più quelli aggiunti da allora.
+     */
+    int getRecords() {
+        return records;
+    }
+
+    /**
+     * @brief Chiude il file del giornale.
+     *
+     * @throws IOException Se il file non può essere chiuso.
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+}
@@ -49,4 +49,11 @@ public class NewGameWindow extends JPanel {
         // Aggiungi la griglia di gioco al pannello principale al centro
         add(grid, BorderLayout.CENTER);
     }
+
+    /**
+     * @brief Chiude la partita in corso, annullando la ricerca del bot.
+     */
+    public void close() {
+        grid.close();
+    }
 }
@@ -0,0 +1,186 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * @class OpeningBook
+ * @brief Libro delle aperture: mossa migliore precalcolata per le prime posizioni della partita.
+ *
+ * Le prime mosse del bot sono le più costose da cercare, perché la griglia è vuota. Il libro,
+ * generato da `OpeningBookGenerator`, associa la chiave canonica di ogni posizione (vedi
+ * `BitBoard.getCanonicalHash`) alla mossa migliore e al suo punteggio; `AttackStrategy`
+ * lo consulta prima di avviare la ricerca. Una posizione e la sua immagine speculare
+ * condividono la stessa voce, con la mossa salvata nell'orientamento canonico.
+ *
+ * Il file è mappato in memoria e non viene mai copiato nello heap. Formato (big endian):
+ * - intestazione: `MAGIC` (int), `VERSION` (int), numero di voci (int);
+ * - voci ordinate per chiave: chiave canonica (long), punteggio (int), mossa canonica (int).
+ *
+ * Questa classe implementa il pattern Singleton come `SaveHandler`: il libro predefinito
+ * viene caricato una sola volta.
+ */
+public class OpeningBook {
+
+    public static final int MAGIC = 0x46344243;  ///< "F4BC": identifica un file di libro delle aperture.
+    public static final int VERSION = 2;  ///< Versione del formato (2: chiavi canoniche).
+
+    private static final int HEADER_BYTES = 12;  ///< Byte dell'intestazione.
+    private static final int ENTRY_BYTES = 16;  ///< Byte di ogni voce.
+    private static final String DEFAULT_PATH = "src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/book.bin";  ///< Percorso del libro predefinito.
+
+    public static final OpeningBook EMPTY = new OpeningBook();  ///< Libro senza posizioni, per giocare sempre con la ricerca.
+
+    // L'istanza Singleton
+    private static OpeningBook instance;
+
+    private MappedByteBuffer buffer;  ///< Contenuto del file, `null` se il libro è vuoto.
+    private int size;  ///< Numero di voci.
+
+    /**
+     * @brief Costruttore che mappa in memoria un file di libro.
+     *
+     * @param path Il percorso del file.
+     * @throws IOException Se il file non esiste o non è un libro valido.
+     */
+    public OpeningBook(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported opening book version " + buffer.getInt(4));
+        }
+        size = buffer.getInt(8);
+        if (buffer.capacity() < HEADER_BYTES + (long) size * ENTRY_BYTES) {
+            throw new IOException("Truncated opening book: " + path);
+        }
+    }
+
+    /**
+     * @brief Costruttore di un libro vuoto, usato quando il file manca.
+     */
+    private OpeningBook() {
+        size = 0;
+    }
+
+    /**
+     * @brief Metodo pubblico per ottenere il libro predefinito.
+     *
+     * Se il file non esiste o non è valido restituisce un libro vuoto: il bot
+     * cercherà ogni mossa come se il libro non ci fosse.
+     *
+     * @return L'istanza di `OpeningBook`.
+     */
+    public static synchronized OpeningBook getInstance() {
+        if (instance == null) {
+            try {
+                instance = new OpeningBook(Paths.get(DEFAULT_PATH));
+            } catch (NoSuchFileException ex) {
+                instance = EMPTY;
+            } catch (IOException ex) {
+                Logger.getLogger(OpeningBook.class.getName()).log(Level.SEVERE, null, ex);
+                instance = EMPTY;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @brief Cerca la mossa migliore per una posizione.
+     *
+     * @param board La posizione attuale.
+     * @return La colonna da giocare, oppure -1 se la posizione non è nel libro.
+     */
+    public int lookup(BitBoard board) {
+        int index = find(board.getCanonicalHash());
+        return index < 0 ? -1 : board.canonicalColumn(buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 12));
+    }
+
+    /**
+     * @brief Restituisce il punteggio memorizzato per una posizione.
+     *
+     * @param board La posizione attuale.
+     * @return Il punteggio dal punto di vista del bot, oppure 0 se la posizione non è nel libro.
+     */
+    public int getScore(BitBoard board) {
+        int index = find(board.getCanonicalHash());
+        return index < 0 ? 0 : buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * @brief Restituisce il numero di posizioni nel libro.
+     *
+     * @return Il numero di voci.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @brief Ricerca binaria di una chiave tra le voci ordinate.
+     *
+     * @param key La chiave della posizione.
+     * @return L'indice della voce, oppure -1 se non presente.
+     */
+    private int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = buffer.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @brief Scrive un file di libro.
+     *
+     * @param path Il percorso del file da creare.
+     * @param keys Le chiavi canoniche delle posizioni, già ordinate in senso crescente e senza duplicati.
+     * @param scores Il punteggio di ogni posizione.
+     * @param moves La mossa migliore di ogni posizione, nell'orientamento canonico.
+     * @throws IOException Se si verifica un errore durante la scrittura del file.
+     */
+    public static void write(Path path, long[] keys, int[] scores, int[] moves) throws IOException {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1] >= keys[i]) {
+                throw new IllegalArgumentException("Keys must be sorted and unique");
+            }
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                out.writeLong(keys[i]);
+                out.writeInt(scores[i]);
+                out.writeInt(moves[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * @class OpeningBookGenerator
+ * @brief Genera il file del libro delle aperture letto da `OpeningBook`.
+ *
+ * Visita tutte le posizioni raggiungibili fino a un certo numero di mosse e, per ognuna
+ * in cui tocca al bot (numero dispari di mosse, dato che il giocatore inizia sempre),
+ * esegue una ricerca profonda e salva mossa e punteggio. Le posizioni raggiunte con
+ * ordini di mosse diversi, e le immagini speculari, vengono cercate una sola volta.
+ *
+ * Uso: `mvn exec:java -Dexec.mainClass=ciroangarella.gioco_forza_4_albero_min_max.OpeningBookGenerator -Dexec.args="7 10"`
+ */
+public class OpeningBookGenerator {
+
+    private static final String DEFAULT_OUTPUT = "src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/book.bin";  ///< File generato se non indicato.
+
+    private static final int PLAYER_CODE = 1;  ///< Codice del giocatore umano, che muove per primo.
+    private static final int BOT_CODE = 2;  ///< Codice del bot.
+
+    private MinMaxSearch search;  ///< Ricerca usata per tutte le posizioni, con una tabella grande.
+    private int depth;  ///< Profondità della ricerca per ogni posizione.
+    private int maxPlies;  ///< Numero massimo di mosse delle posizioni nel libro.
+    private Set<Long> visited = new HashSet<>();  ///< Chiavi canoniche delle posizioni già visitate.
+    private Map<Long, int[]> entries = new TreeMap<>();  ///< Chiave -> {punteggio, mossa}, ordinate per chiave.
+
+    /**
+     * @brief Costruttore del generatore.
+     *
+     * @param maxPlies Numero massimo di mosse delle posizioni nel libro.
+     * @param depth Profondità della ricerca per ogni posizione.
+     */
+    public OpeningBookGenerator(int maxPlies, int depth) {
+        this.maxPlies = maxPlies;
+        this.depth = depth;
+        this.search = new MinMaxSearch(PLAYER_CODE, BOT_CODE, new TranspositionTable(256));
+    }
+
+    /**
+     * @brief Visita tutte le posizioni e scrive il libro.
+     *
+     * @param output Il file da creare.
+     * @throws IOException Se si verifica un errore durante la scrittura del file.
+     */
+    public void generate(Path output) throws IOException {
+        visit(new BitBoard());
+
+        long[] keys = new long[entries.size()];
+        int[] scores = new int[entries.size()];
+        int[] moves = new int[entries.size()];
+        int i = 0;
+        for (Map.Entry<Long, int[]> entry : entries.entrySet()) {
+            keys[i] = entry.getKey();
+            scores[i] = entry.getValue()[0];
+            moves[i] = entry.getValue()[1];
+            i++;
+        }
+        OpeningBook.write(output, keys, scores, moves);
+    }
+
+    /**
+     * @brief Visita ricorsivamente le posizioni raggiungibili da quella data.
+     *
+     * @param board La posizione da visitare, ripristinata all'uscita.
+     */
+    private void visit(BitBoard board) {
+        if (!visited.add(board.getCanonicalHash())) {
+            return; // Già raggiunta con un altro ordine di mosse o nella forma speculare
+        }
+
+        if (board.getMoveCount() % 2 == 1) {
+            search.start(Long.MAX_VALUE);
+            int move = search.searchRoot(board, depth, TranspositionTable.NO_MOVE);
+            entries.put(board.getCanonicalHash(), new int[]{search.getLastScore(), board.canonicalColumn(move)});
+        }
+        if (board.getMoveCount() == maxPlies) {
+            return;
+        }
+
+        int playerCode = board.getMoveCount() % 2 == 0 ? PLAYER_CODE : BOT_CODE;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            if (!board.canPlay(col)) {
+                continue;
+            }
+            board.play(col, playerCode);
+            // Le partite già vinte non servono nel libro
+            if (board.checkForWin(playerCode) == 0) {
+                visit(board);
+            }
+            board.undo(col);
+        }
+    }
+
+    /**
+     * @brief Punto di ingresso del generatore.
+     *
+     * @param args Numero massimo di mosse (predefinito 7), profondità della ricerca
+     * (predefinita 10) e file di destinazione.
+     * @throws IOException Se si verifica un errore durante la scrittura del file.
+     */
+    public static void main(String[] args) throws IOException {
+        int maxPlies = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path output = Paths.get(args.length > 2 ? args[2] : DEFAULT_OUTPUT);
+
+        long start = System.nanoTime();
+        OpeningBookGenerator generator = new OpeningBookGenerator(maxPlies, depth);
+        generator.generate(output);
+        System.out.printf("%d positions written to %s in %.1f s%n",
+                generator.entries.size(), output, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,165 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class ParallelAttackStrategy
+ * @brief Variante di `AttackStrategy` che valuta le colonne in parallelo.
+ *
+ * Ogni colonna disponibile diventa un task indipendente, eseguito da un `ForkJoinPool`
+ * o da un executor fornito dal chiamante. I task condividono il miglior punteggio
+ * trovato finora, che fa da limite alpha per quelli che partono dopo.
+ *
+ * Il limite condiviso è sempre `best - 1`: le colonne con lo stesso punteggio della
+ * migliore ricevono quindi un valore esatto, e la scelta finale (punteggio massimo,
+ * a parità la colonna con indice minore) non dipende dall'ordine di esecuzione.
+ * La mossa restituita è identica a quella di `AttackStrategy` alla stessa profondità con
+ * libro delle aperture e risolutore di fine partita disattivati: questa classe non li
+ * consulta, quindi in apertura e nel finale le due strategie possono giocare diversamente.
+ */
+public class ParallelAttackStrategy implements Strategy {
+
+    public static final int THREAD_TABLE_MB = 4;  ///< Memoria della tabella delle trasposizioni di ogni thread.
+
+    private InterfacePlayer bot;  ///< Riferimento al giocatore bot.
+    private InterfacePlayer player;  ///< Riferimento al giocatore umano.
+    private ExecutorService executor;  ///< Esecutore dei task, uno per colonna.
+    private ThreadLocal<MinMaxSearch> searches;  ///< Una ricerca (e una tabella) per ogni thread dell'esecutore.
+    private List<TranspositionTable> tables = new CopyOnWriteArrayList<>();  ///< Le tabelle create finora, per `clearTables`.
+    private int depth = AttackStrategy.DEFAULT_DEPTH;  ///< Profondità della ricerca dopo la mossa del bot.
+
+    /**
+     * Costruttore che crea un `ForkJoinPool` dedicato.
+     *
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     * @param threads Numero di thread da usare.
+     */
+    public ParallelAttackStrategy(InterfacePlayer player, InterfacePlayer bot, int threads) {
+        this(player, bot, new ForkJoinPool(threads));
+    }
+
+    /**
+     * Costruttore che usa un esecutore fornito dal chiamante.
+     *
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     * @param executor Esecutore su cui lanciare i task delle colonne.
+     */
+    public ParallelAttackStrategy(InterfacePlayer player, InterfacePlayer bot, ExecutorService executor) {
+        this.bot = bot;
+        this.player = player;
+        this.executor = executor;
+        this.searches = ThreadLocal.withInitial(() -> {
+            TranspositionTable table = new TranspositionTable(THREAD_TABLE_MB);
+            tables.add(table);
+            return new MinMaxSearch(player.getPlayerCode(), bot.getPlayerCode(), table);
+        });
+    }
+
+    /**
+     * Imposta la profondità della ricerca.
+     *
+     * @param depth Profondità della ricerca dopo la mossa del bot (predefinita `AttackStrategy.DEFAULT_DEPTH`).
+     */
+    public void setDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be positive");
+        }
+        this.depth = depth;
+    }
+
+    /**
+     * Sceglie la mossa del bot valutando tutte le colonne in parallelo, se non c'è
+     * una mossa obbligata (`BitBoard.forcedMove`).
+     *
+     * @param board La griglia di gioco attuale.
+     * @return L'indice della colonna in cui il bot posizionerà la sua pedina.
+     * @throws CancellationException Se il thread viene interrotto durante la ricerca: i
+     * risultati parziali non bastano per scegliere una mossa.
+     */
+    @Override
+    public int chooseMove(BitBoard board) {
+        int forcedMove = board.forcedMove(bot.getPlayerCode());
+        if (forcedMove >= 0) {
+            return forcedMove;
+        }
+
+        AtomicInteger sharedBest = new AtomicInteger(-MinMaxSearch.INFINITY);
+        int[] scores = new int[BitBoard.COLS];
+        boolean[] exact = new boolean[BitBoard.COLS];
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        // Le colonne centrali partono per prime: di solito alzano subito il limite condiviso
+        for (int j : BitBoard.CENTER_ORDER) {
+            if (!board.canPlay(j)) {
+                continue;
+            }
+            tasks.add(() -> {
+                MinMaxSearch search = searches.get();
+                search.start(Long.MAX_VALUE);
+                BitBoard copy = new BitBoard(board);
+                copy.play(j, bot.getPlayerCode());
+
+                int alpha = sharedBest.get() - 1;
+                int score = search.minmax(depth, false, copy, alpha, MinMaxSearch.INFINITY);
+                if (score > alpha) {
+                    scores[j] = score;
+                    exact[j] = true;
+                    sharedBest.accumulateAndGet(score, Math::max);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("Search interrupted");
+            cancelled.initCause(ex);
+            throw cancelled;
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+
+        // Stessa regola della ricerca sequenziale: punteggio massimo, a parità l'indice minore
+        int bestMove = 0;
+        int bestScore = -MinMaxSearch.INFINITY;
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            if (exact[j] && scores[j] > bestScore) {
+                bestScore = scores[j];
+                bestMove = j;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Svuota le tabelle delle trasposizioni di tutti i thread, senza ricrearle: la ricerca
+     * successiva parte a freddo. Non va chiamato durante `chooseMove`.
+     */
+    public void clearTables() {
+        for (TranspositionTable table : tables) {
+            table.clear();
+        }
+    }
+
+    /**
+     * Arresta l'esecutore. Da chiamare quando la strategia non serve più.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,30 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+/**
+ * @class PerfectStrategy
+ * @brief Livello di difficoltà più alto: `AttackStrategy` con il risolutore esatto attivo prima.
+ *
+ * In apertura e a centro partita cerca per approfondimento iterativo con un tempo fisso
+ * per mossa; da `PERFECT_THRESHOLD` celle vuote in giù gioca in modo perfetto con
+ * l'`EndgameSolver`. Le posizioni più difficili con 24 celle vuote richiedono quasi un
+ * secondo: se il risolutore non finisce nella sua parte di `PERFECT_MOVE_TIME` la mossa
+ * la sceglie la ricerca, quindi ogni mossa resta entro `PERFECT_MOVE_TIME` (a parte il
+ * controllo della scadenza, ogni 1024 nodi).
+ */
+public class PerfectStrategy extends AttackStrategy {
+
+    public static final long PERFECT_MOVE_TIME = 1000;  ///< Tempo per mossa della ricerca, in millisecondi.
+    public static final int PERFECT_THRESHOLD = 24;  ///< Celle vuote da cui la partita viene risolta.
+
+    /**
+     * Costruttore della classe PerfectStrategy.
+     * 
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     */
+    public PerfectStrategy(InterfacePlayer player, InterfacePlayer bot) {
+        super(player, bot);
+        setMoveTime(PERFECT_MOVE_TIME);
+        setEndgameThreshold(PERFECT_THRESHOLD);
+    }
+}
@@ -0,0 +1,168 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @class Perft
+ * @brief Conta le foglie dell'albero delle mosse, per verificare la correttezza e misurare la velocità.
+ *
+ * `perft(depth)` è il numero di sequenze legali di `depth` mosse a partire da una
+ * posizione. Una posizione vinta o a griglia piena è terminale: non viene espansa, e
+ * conta come foglia solo se si trova esattamente alla profondità richiesta. Il conteggio
+ * dipende solo dalle regole, quindi deve restare identico qualunque modifica si faccia
+ * a `play`/`undo`, alla generazione delle mosse o al controllo della vittoria.
+ *
+ * Le implementazioni confrontate sono tre: `BitBoard` su un thread, `BitBoard` su più
+ * thread (un task per ogni sequenza di `SPLIT_DEPTH` mosse) e `GameModel`, il modello
+ * della partita reale, con `play` e `undo`.
+ *
+ * I conteggi noti sono controllati da `PerftTest`; le foglie al secondo le misura
+ * `PerftBenchmark` nel modulo dei benchmark.
+ */
+public class Perft {
+
+    private static final int SPLIT_DEPTH = 2;  ///< Mosse fissate in ogni task della versione parallela.
+
+    /**
+     * @brief Conta le foglie a una profondità con `BitBoard`, su un solo thread.
+     *
+     * @param board La posizione di partenza (modificata durante il conteggio e poi ripristinata).
+     * @param depth La profondità.
+     * @return Il numero di sequenze legali di `depth` mosse.
+     */
+    public static long perft(BitBoard board, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int playerCode = board.getMoveCount() % 2 == 0 ? 1 : 2;
+        long leaves = 0;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            if (!board.canPlay(col)) {
+                continue;
+            }
+            board.play(col, playerCode);
+            if (depth == 1) {
+                leaves++;
+            } else if (board.checkForWin(playerCode) == 0) {
+                leaves += perft(board, depth - 1);
+            }
+            board.undo(col);
+        }
+        return leaves;
+    }
+
+    /**
+     * @brief Conta le foglie a una profondità con `BitBoard`, dividendo l'albero tra più thread.
+     *
+     * @param board La posizione di partenza (non modificata).
+     * @param depth La profondità.
+     * @param threads Il numero di thread.
+     * @return Il numero di sequenze legali di `depth` mosse, uguale a `perft`.
+     */
+    public static long perftParallel(BitBoard board, int depth, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        int split = Math.min(SPLIT_DEPTH, depth);
+        List<BitBoard> roots = new ArrayList<>();
+        collectRoots(board, split, split == depth, roots);
+
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (BitBoard root : roots) {
+            tasks.add(() -> perft(root, depth - split));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long leaves = 0;
+            for (Future<Long> future : executor.invokeAll(tasks)) {
+                leaves += future.get();
+            }
+            return leaves;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @brief Raccoglie una copia di ogni posizione raggiungibile con `depth` mosse.
+     *
+     * Le posizioni vinte non vengono espanse, come in `perft`; quelle vinte proprio
+     * all'ultima mossa si aggiungono solo se sono già le foglie del conteggio.
+     *
+     * @param board La posizione attuale (ripristinata al termine).
+     * @param depth Le mosse ancora da giocare.
+     * @param leaves Indica se le posizioni raccolte sono le foglie del conteggio.
+     * @param roots La lista in cui aggiungere le posizioni.
+     */
+    private static void collectRoots(BitBoard board, int depth, boolean leaves, List<BitBoard> roots) {
+        if (depth == 0) {
+            roots.add(new BitBoard(board));
+            return;
+        }
+        int playerCode = board.getMoveCount() % 2 == 0 ? 1 : 2;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            if (!board.canPlay(col)) {
+                continue;
+            }
+            board.play(col, playerCode);
+            if ((depth == 1 && leaves) || board.checkForWin(playerCode) == 0) {
+                collectRoots(board, depth - 1, leaves, roots);
+            }
+            board.undo(col);
+        }
+    }
+
+    /**
+     * @brief Conta le foglie con `GameModel`, lo stesso modello usato dalla GUI.
+     *
+     * @param moves La posizione, come colonne giocate a partire dal giocatore.
+     * @param depth La profondità.
+     * @return Il numero di sequenze legali di `depth` mosse, uguale a `perft`.
+     */
+    public static long perftModel(String moves, int depth) {
+        GameModel model = new GameModel();
+        for (int i = 0; i < moves.length(); i++) {
+            model.play(moves.charAt(i) - '0');
+        }
+        return perftModel(model, depth);
+    }
+
+    /**
+     * @brief Passo ricorsivo di `perftModel`.
+     *
+     * @param model La partita (modificata e poi ripristinata).
+     * @param depth Le mosse ancora da giocare.
+     * @return Il numero di foglie.
+     */
+    private static long perftModel(GameModel model, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long leaves = 0;
+        for (int col = 0; col < GameModel.COLS; col++) {
+            if (!model.canPlay(col)) {
+                continue;
+            }
+            model.play(col);
+            if (depth == 1) {
+                leaves++;
+            } else if (model.getStatus() == GameModel.IN_PROGRESS) {
+                leaves += perftModel(model, depth - 1);
+            }
+            model.undo();
+        }
+        return leaves;
+    }
+}
@@ -0,0 +1,169 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * @class PersistenceService
+ * @brief Esegue le scritture su disco in un thread dedicato, fuori dal thread degli eventi Swing.
+ *
+ * Ogni scrittura viene inviata con una chiave (di solito il percorso del file): se per la
+ * stessa chiave c'è già una scrittura in attesa, la nuova prende il suo posto, quindi una
+ * raffica di aggiornamenti dello stesso file produce una sola scrittura, con lo stato più
+ * recente. Il thread di scrittura preleva tutte le scritture in attesa insieme e le esegue
+ * in ordine di arrivo.
+ *
+ * La coda ha al massimo `QUEUE_CAPACITY` chiavi in attesa; oltre, `submit` aspetta che il
+ * disco smaltisca. Alla chiusura del programma un hook di spegnimento esegue le scritture
+ * rimaste (vedi `flush`).
+ *
+ * La classe implementa il pattern Singleton, come `SaveHandler`.
+ */
+public class PersistenceService {
+
+    private static PersistenceService instance; ///< L'istanza Singleton.
+
+    public static final int QUEUE_CAPACITY = 16; ///< Numero massimo di chiavi in attesa di scrittura.
+    public static final long SHUTDOWN_TIMEOUT_MS = 5000; ///< Attesa massima delle scritture alla chiusura del programma.
+
+    private Map<String, Runnable> pending = new LinkedHashMap<>(); ///< Scritture in attesa, per chiave, in ordine di arrivo.
+    private boolean writing; ///< Indica se il thread di scrittura sta eseguendo un gruppo di scritture.
+    private long batches; ///< Gruppi di scritture eseguiti.
+    private long coalesced; ///< Scritture sostituite da una più recente della stessa chiave prima di essere eseguite.
+
+    /**
+     * @brief Costruttore privato: avvia il thread di scrittura e registra l'hook di spegnimento.
+     */
+    private PersistenceService() {
+        Thread writer = new Thread(this::writeLoop, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(SHUTDOWN_TIMEOUT_MS), "persistence-flush"));
+    }
+
+    /**
+     * @brief Metodo pubblico per ottenere l'istanza del Singleton.
+     *
+     * @return L'istanza di `PersistenceService`.
+     */
+    public static synchronized PersistenceService getInstance() {
+        if (instance == null) {
+            instance = new PersistenceService();
+        }
+        return instance;
+    }
+
+    /**
+     * @brief Mette in coda una scrittura, sostituendo quella in attesa con la stessa chiave.
+     *
+     * La scrittura deve leggere lo stato da salvare quando viene eseguita, non quando viene
+     * inviata: così quella che resta dopo la sostituzione salva comunque tutto.
+     *
+     * @param key La chiave della scrittura, di solito il percorso del file.
+     * @param write La scrittura, eseguita dal thread di scrittura.
+     */
+    public synchronized void submit(String key, Runnable write) {
+        if (pending.containsKey(key)) {
+            coalesced++;
+        } else {
+            while (pending.size() >= QUEUE_CAPACITY) {
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break; // La scrittura viene comunque accodata, oltre la capacità
+                }
+            }
+        }
+        pending.put(key, write); // Una chiave già presente mantiene la sua posizione nella coda
+        notifyAll();
+    }
+
+    /**
+     * @brief Aspetta che tutte le scritture inviate finora siano state eseguite.
+     */
+    public void flush() {
+        flush(0);
+    }
+
+    /**
+     * @brief Aspetta che tutte le scritture inviate finora siano state eseguite, al massimo per un tempo dato.
+     *
+     * @param timeoutMillis L'attesa massima in millisecondi, 0 per attendere senza limite.
+     * @return `true` se non è rimasta nessuna scrittura da eseguire.
+     */
+    public synchronized boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!pending.isEmpty() || writing) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (timeoutMillis > 0 && remaining <= 0) {
+                return false;
+            }
+            try {
+                wait(timeoutMillis > 0 ? remaining : 0);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @brief Restituisce il numero di gruppi di scritture eseguiti.
+     *
+     * @return I gruppi eseguiti dall'avvio.
+     */
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    /**
+     * @brief Restituisce il numero di scritture evitate perché sostituite da una più recente.
+     *
+     * @return Le scritture sostituite dall'avvio.
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * @brief Ciclo del thread di scrittura: preleva ed esegue le scritture in attesa.
+     */
+    private void writeLoop() {
+        while (true) {
+            List<Runnable> batch;
+            synchronized (this) {
+                while (pending.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                writing = true;
+                notifyAll(); // Libera chi aspetta spazio nella coda
+            }
+
+            for (Runnable write : batch) {
+                try {
+                    write.run();
+                } catch (RuntimeException ex) {
+                    Logger.getLogger(PersistenceService.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+
+            synchronized (this) {
+                writing = false;
+                batches++;
+                notifyAll();
+            }
+        }
+    }
+}
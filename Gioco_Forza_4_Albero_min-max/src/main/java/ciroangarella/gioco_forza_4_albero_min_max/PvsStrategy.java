@@ -0,0 +1,98 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+/**
+ * @class PvsStrategy
+ * @brief Variante di `AttackStrategy` che cerca con la Principal Variation Search.
+ *
+ * La ricerca procede sempre per approfondimento iterativo, anche a profondità fissa:
+ * il punteggio di ogni iterazione fa da centro della finestra di aspirazione della
+ * successiva. Se il risultato esce dalla finestra, la ricerca viene ripetuta con una
+ * finestra più larga dal lato in cui è uscito. Dentro ogni nodo solo la prima colonna
+ * usa la finestra completa (vedi `MinMaxSearch.setPrincipalVariation`).
+ *
+ * La mossa scelta e il suo punteggio sono gli stessi di `AttackStrategy` alla stessa
+ * profondità (lo verifica `PvsStrategyTest`); cambiano solo i nodi visitati e il tempo,
+ * che `SearchAlgorithmBenchmark` (modulo dei benchmark) mette a confronto.
+ */
+public class PvsStrategy extends AttackStrategy {
+
+    public static final int ASPIRATION_WINDOW = 16;  ///< Semiampiezza iniziale della finestra di aspirazione.
+
+    /**
+     * Costruttore della classe PvsStrategy.
+     * 
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     */
+    public PvsStrategy(InterfacePlayer player, InterfacePlayer bot) {
+        this(player, bot, DEFAULT_TABLE_MB);
+    }
+
+    /**
+     * Costruttore della classe PvsStrategy con una tabella delle trasposizioni
+     * di dimensione scelta.
+     * 
+     * @param player Giocatore umano.
+     * @param bot Giocatore bot.
+     * @param tableSizeMb Memoria da dedicare alla tabella delle trasposizioni, in megabyte.
+     */
+    public PvsStrategy(InterfacePlayer player, InterfacePlayer bot, int tableSizeMb) {
+        super(player, bot, tableSizeMb);
+        search.setPrincipalVariation(true);
+    }
+
+    /**
+     * Sceglie la mossa con la PVS per approfondimento iterativo con finestre di aspirazione.
+     * 
+     * @param board La griglia di gioco attuale.
+     * @return L'indice della colonna in cui il bot posizionerà la sua pedina.
+     */
+    @Override
+    protected int searchMove(BitBoard board) {
+        int emptyCells = BitBoard.ROWS * BitBoard.COLS - board.getMoveCount();
+        int maxDepth = moveTimeMillis == 0 ? depth : emptyCells - 1;
+        startSearch(moveDeadline());
+
+        // Mossa di riserva se neanche la prima iterazione riesce a terminare
+        int bestMove = 0;
+        for (int j : BitBoard.CENTER_ORDER) {
+            if (board.canPlay(j)) {
+                bestMove = j;
+                break;
+            }
+        }
+
+        int score = 0;
+        for (int currentDepth = 1; currentDepth <= maxDepth; currentDepth++) {
+            // La prima iterazione non ha un punteggio precedente: finestra completa
+            int delta = ASPIRATION_WINDOW;
+            int alpha = currentDepth == 1 ? -MinMaxSearch.INFINITY : Math.max(score - delta, -MinMaxSearch.INFINITY);
+            int beta = currentDepth == 1 ? MinMaxSearch.INFINITY : Math.min(score + delta, MinMaxSearch.INFINITY);
+
+            int move;
+            while (true) {
+                move = search.searchRoot(board, currentDepth, bestMove, alpha, beta);
+                if (search.isAborted()) {
+                    break;
+                }
+                int result = search.getLastScore();
+                if (result <= alpha && alpha > -MinMaxSearch.INFINITY) {
+                    alpha = Math.max(result - delta, -MinMaxSearch.INFINITY);
+                } else if (result >= beta && beta < MinMaxSearch.INFINITY) {
+                    beta = Math.min(result + delta, MinMaxSearch.INFINITY);
+                } else {
+                    score = result;
+                    break;
+                }
+                delta *= 4; // Ogni nuovo fallimento allarga di più la finestra
+            }
+
+            if (search.isAborted()) {
+                break; // Iterazione incompleta: si tiene la mossa della precedente
+            }
+            bestMove = move;
+        }
+
+        return bestMove;
+    }
+}
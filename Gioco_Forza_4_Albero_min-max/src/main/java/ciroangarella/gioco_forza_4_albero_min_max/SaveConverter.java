@@ -0,0 +1,83 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * @class SaveConverter
+ * @brief Converte il vecchio salvataggio `save.json` nel formato binario di `SaveHandler`.
+ *
+ * Il JSON contiene l'array `grid` con un oggetto `{row, col, owner}` per cella e i nomi
+ * (`playerId`, `strategy`) come stringhe. L'ordine delle mosse non è noto, quindi il
+ * salvataggio convertito ha la sola posizione. `SaveHandler` usa la stessa conversione
+ * al primo avvio se trova solo il file JSON.
+ *
+ * Uso: `mvn exec:java -Dexec.mainClass=ciroangarella.gioco_forza_4_albero_min_max.SaveConverter -Dexec.args="img/save.json img/save.bin"`
+ * (senza argomenti converte il salvataggio predefinito)
+ */
+public class SaveConverter {
+
+    /**
+     * @brief Punto di ingresso.
+     *
+     * @param args File JSON di origine e file binario di destinazione; il secondo si
+     * ricava dal primo se manca.
+     * @throws IOException Se il JSON non può essere letto o non è un salvataggio valido.
+     */
+    public static void main(String[] args) throws IOException {
+        Path target = args.length > 1 ? Paths.get(args[1])
+                : args.length > 0 ? Paths.get(args[0]).resolveSibling("save.bin")
+                : Paths.get(SaveHandler.DEFAULT_SAVE_FILE);
+        Path source = args.length > 0 ? Paths.get(args[0]) : target.resolveSibling(SaveHandler.LEGACY_FILE_NAME);
+
+        long before = Files.size(source);
+        convert(source, target);
+        System.out.printf("%s (%d bytes) -> %s (%d bytes)%n", source, before, target, Files.size(target));
+    }
+
+    /**
+     * @brief Converte un salvataggio JSON in un salvataggio binario, sovrascrivendo la destinazione.
+     *
+     * @param source Il file JSON.
+     * @param target Il file binario da scrivere.
+     * @throws IOException Se il JSON non può essere letto o non è un salvataggio valido.
+     */
+    public static void convert(Path source, Path target) throws IOException {
+        SaveHandler save = new SaveHandler(target.toString());
+        save.applyClear();
+        importJson(source, save);
+        save.writeFile();
+        save.flush();
+    }
+
+    /**
+     * @brief Copia celle e nomi di un salvataggio JSON in un `SaveHandler`.
+     *
+     * @param source Il file JSON.
+     * @param save Il salvataggio da riempire (solo in memoria, non viene scritto).
+     * @throws IOException Se il JSON non può essere letto o non è un salvataggio valido.
+     */
+    static void importJson(Path source, SaveHandler save) throws IOException {
+        try {
+            JSONObject json = new JSONObject(new String(Files.readAllBytes(source), StandardCharsets.UTF_8));
+            JSONArray grid = json.getJSONArray("grid");
+            for (int i = 0; i < grid.length(); i++) {
+                JSONObject cell = grid.getJSONObject(i);
+                save.setOwner(cell.getInt("owner"), cell.getInt("row"), cell.getInt("col"));
+            }
+            for (String key : json.keySet()) {
+                if (!key.equals("grid")) {
+                    save.applyName(key, json.optString(key));
+                }
+            }
+        } catch (JSONException | IllegalArgumentException ex) {
+            throw new IOException(source + " is not a valid save file", ex);
+        }
+    }
+}
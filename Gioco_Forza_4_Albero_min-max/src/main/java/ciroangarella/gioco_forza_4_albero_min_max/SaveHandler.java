@@ -1,60 +1,134 @@
 package ciroangarella.gioco_forza_4_albero_min_max;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * @class SaveHandler
  * @brief Classe per gestire il salvataggio e il recupero dei dati di gioco.
- * 
+ *
  * Questa classe implementa il pattern Singleton per garantire che ci sia
  * una sola istanza di `SaveHandler` durante l'esecuzione del programma.
+ *
+ * Il salvataggio è un file binario di poche decine di byte, letto e scritto con
+ * `DataInputStream`/`DataOutputStream` (big-endian):
+ *
+ * - intestazione fissa: `MAGIC` (int), `VERSION` (byte) e generazione (long, dalla versione 2);
+ * - le maschere delle pedine dei due giocatori (due long, con lo stesso schema di bit di `BitBoard`);
+ * - il numero di mosse (byte) seguito dalle colonne giocate (un byte ciascuna), vuoto se
+ *   l'ordine delle mosse non è noto;
+ * - il numero di nomi (byte) seguito dalle coppie chiave/valore (`writeUTF`).
+ *
+ * In memoria la griglia resta in due maschere, quindi `getOwner` e `setOwner` costano O(1).
+ * Se il file binario non esiste ma accanto c'è il vecchio `save.json`, questo viene
+ * convertito al primo avvio (vedi `SaveConverter`).
+ *
+ * Il file è un'istantanea: le mosse (ricevute come `GameListener` della partita), le
+ * partite svuotate e i nomi successivi vengono aggiunti a un `MoveJournal` accanto al
+ * file, un record di pochi byte per modifica. All'avvio il giornale viene rigiocato
+ * sull'istantanea, quindi una chiusura improvvisa non perde la partita. `writeFile`
+ * scrive una nuova istantanea (generazione successiva) e svuota il giornale; succede
+ * anche da sola ogni `COMPACT_RECORDS` record.
+ *
+ * I metodi aggiornano solo lo stato in memoria e accodano la scrittura al
+ * `PersistenceService`: nessun accesso al disco avviene sul thread degli eventi Swing.
+ * I record accumulati mentre il disco è occupato vengono scritti insieme.
  */
-public class SaveHandler {
+public class SaveHandler implements GameListener {
 
     // L'istanza Singleton
     private static SaveHandler instance;
 
+    public static final String SAVE_FILE_PROPERTY = "forza4.saveFile"; ///< Proprietà di sistema che sostituisce il percorso del salvataggio.
+    static final String DEFAULT_SAVE_FILE = "src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/save.bin"; ///< Percorso predefinito del salvataggio.
+    static final String LEGACY_FILE_NAME = "save.json"; ///< Nome del vecchio salvataggio JSON, cercato nella stessa cartella.
+    static final String JOURNAL_SUFFIX = ".journal"; ///< Suffisso del giornale, aggiunto al percorso del salvataggio.
+
+    static final int MAGIC = 0x46345356; ///< "F4SV", primi quattro byte di ogni salvataggio.
+    static final int VERSION = 2; ///< Versione del formato scritta da `writeFile` (la 1 non ha la generazione).
+    static final int COMPACT_RECORDS = 64; ///< Record del giornale dopo cui viene scritta una nuova istantanea.
+    private static final int COLUMN_BITS = BitBoard.ROWS + 1; ///< Bit per colonna nelle maschere, come in `BitBoard`.
+    private static final long COLUMN_MASK = (1L << BitBoard.ROWS) - 1; ///< Le celle della prima colonna nelle maschere.
+
     private String filePath; ///< Percorso del file di salvataggio
-    private JSONObject save; ///< Oggetto JSON che contiene i dati di salvataggio
-    
+    private long mask1; ///< Celle del giocatore con codice 1.
+    private long mask2; ///< Celle del giocatore con codice 2.
+    private List<Integer> moves = new ArrayList<>(); ///< Colonne giocate in ordine, vuota se l'ordine non è noto.
+    private Map<String, String> names = new LinkedHashMap<>(); ///< Nomi salvati, per ID (es. "playerId", "strategy").
+    private long generation; ///< Numero dell'istantanea su disco, usato solo dal thread di scrittura.
+    private MoveJournal journal; ///< Giornale delle modifiche successive all'istantanea, `null` se non disponibile.
+    private PersistenceService persistence; ///< Thread di scrittura, assegnato alla fine del costruttore.
+    private ByteArrayOutputStream pendingRecords = new ByteArrayOutputStream(); ///< Record non ancora scritti nel giornale.
+    private int pendingCount; ///< Numero di record in `pendingRecords`.
+    private boolean snapshotRequested; ///< Indica che la prossima scrittura deve essere un'istantanea completa.
+
     /**
      * @brief Costruttore privato per prevenire l'istanziamento dall'esterno.
-     * 
-     * Inizializza il percorso del file di salvataggio e carica i dati dal file
-     * JSON nel campo `save`.
+     *
+     * Usa il percorso predefinito, oppure la proprietà di sistema `SAVE_FILE_PROPERTY`
+     * se impostata.
      */
     private SaveHandler(){
-        save = new JSONObject();
-        filePath = "src/main/java/ciroangarella/gioco_forza_4_albero_min_max/img/save.json";
-        StringBuilder content = new StringBuilder();
-        
-        // Legge il file e lo salva in `save`
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line);
+        this(System.getProperty(SAVE_FILE_PROPERTY, DEFAULT_SAVE_FILE));
+    }
+
+    /**
+     * @brief Costruttore che carica un salvataggio da un percorso qualsiasi.
+     *
+     * Se il file non esiste viene importato il `save.json` della stessa cartella, se c'è,
+     * altrimenti si parte da un salvataggio vuoto. Un file danneggiato viene segnalato
+     * nel log e ignorato. Poi viene rigiocato il giornale.
+     *
+     * @param filePath Il percorso del salvataggio binario.
+     */
+    SaveHandler(String filePath) {
+        this.filePath = filePath;
+        Path path = Paths.get(filePath);
+        Path legacy = path.resolveSibling(LEGACY_FILE_NAME);
+        try {
+            if (Files.exists(path)) {
+                read(Files.readAllBytes(path));
+            } else if (Files.exists(legacy)) {
+                SaveConverter.importJson(legacy, this);
             }
-        } catch (FileNotFoundException ex) {
+        } catch (IOException ex) {
             Logger.getLogger(SaveHandler.class.getName()).log(Level.SEVERE, null, ex);
+            applyClear();
+            names.clear();
+        }
+
+        try {
+            journal = new MoveJournal(Paths.get(filePath + JOURNAL_SUFFIX));
+            journal.replay(generation, this);
         } catch (IOException ex) {
             Logger.getLogger(SaveHandler.class.getName()).log(Level.SEVERE, null, ex);
+            journal = null; // Si continua senza giornale, salvando solo istantanee
+        }
+
+        persistence = PersistenceService.getInstance();
+        if (snapshotRequested) {
+            schedule(); // Salvataggio importato da `save.json`
         }
-        this.save = new JSONObject(content.toString());
     }
 
     /**
      * @brief Metodo pubblico per ottenere l'istanza del Singleton.
-     * 
+     *
      * @return L'istanza di `SaveHandler`.
      */
     public static synchronized SaveHandler getInstance() {
@@ -64,103 +138,461 @@ public class SaveHandler {
         return instance;
     }
 
+    /**
+     * @brief Legge il contenuto di un salvataggio binario.
+     *
+     * @param data I byte del file.
+     * @throws IOException Se il file non è un salvataggio valido.
+     */
+    private void read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (data.length < 5 || in.readInt() != MAGIC) {
+            throw new IOException(filePath + " is not a save file");
+        }
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported save version " + version + " in " + filePath);
+        }
+        long snapshot = version >= 2 ? in.readLong() : 0;
+        long first = in.readLong();
+        long second = in.readLong();
+        if ((first & second) != 0 || ((first | second) & ~BitBoard.BOARD_MASK) != 0) {
+            throw new IOException("Invalid grid in " + filePath);
+        }
+        List<Integer> columns = new ArrayList<>();
+        int moveCount = in.readUnsignedByte();
+        for (int i = 0; i < moveCount; i++) {
+            int col = in.readUnsignedByte();
+            if (col >= BitBoard.COLS) {
+                throw new IOException("Invalid move " + col + " in " + filePath);
+            }
+            columns.add(col);
+        }
+        Map<String, String> entries = new LinkedHashMap<>();
+        int nameCount = in.readUnsignedByte();
+        for (int i = 0; i < nameCount; i++) {
+            entries.put(in.readUTF(), in.readUTF());
+        }
+
+        generation = snapshot;
+        mask1 = first;
+        mask2 = second;
+        moves = columns;
+        names = entries;
+    }
+
+    /**
+     * @brief Restituisce il bit di una cella nelle maschere.
+     *
+     * @param row La riga (0 in alto).
+     * @param col La colonna.
+     * @return La maschera con il solo bit della cella.
+     */
+    private static long cellBit(int row, int col) {
+        return 1L << (col * COLUMN_BITS + BitBoard.ROWS - 1 - row);
+    }
+
     /**
      * @brief Ottiene il valore dell'owner in una specifica cella della griglia.
-     * 
+     *
      * @param row Riga della cella da controllare.
      * @param col Colonna della cella da controllare.
      * @return Il valore dell'owner nella cella specificata.
      * @throws IOException Se si verifica un errore durante la lettura del file.
      */
-    public int getOwner(int row, int col) throws IOException {
+    public synchronized int getOwner(int row, int col) throws IOException {
         if (row < 0 || col < 0) {
             throw new IllegalArgumentException("Row and col must be non-negative");
         }
+        if (row >= BitBoard.ROWS || col >= BitBoard.COLS) {
+            return -1; // Ritorna -1 se la cella non esiste
+        }
 
-        JSONArray jsonArray = this.save.getJSONArray("grid");
-
-        // Trova l'oggetto specifico e restituisce il valore dell'owner
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject jsonObject = jsonArray.getJSONObject(i);
-            if (jsonObject.getInt("row") == row && jsonObject.getInt("col") == col) {
-                return jsonObject.getInt("owner");
-            }
+        long bit = cellBit(row, col);
+        if ((mask1 & bit) != 0) {
+            return 1;
+        } else if ((mask2 & bit) != 0) {
+            return 2;
         }
-        return -1; // Ritorna -1 se l'owner non viene trovato
+        return 0;
     }
 
     /**
      * @brief Imposta il valore dell'owner in una specifica cella della griglia.
-     * 
+     *
+     * Se la cella cambia, l'ordine delle mosse salvato non è più valido e viene scartato.
+     * La modifica non passa dal giornale: viene salvata con una nuova istantanea.
+     *
      * @param owner Il nuovo valore dell'owner.
      * @param row Riga della cella da aggiornare.
      * @param col Colonna della cella da aggiornare.
      * @throws IOException Se si verifica un errore durante la scrittura del file.
      */
-    public void setOwner(int owner, int row, int col) throws IOException {
-        JSONArray jsonArray = this.save.getJSONArray("grid");
-        
+    public synchronized void setOwner(int owner, int row, int col) throws IOException {
         if (row < 0 || col < 0) {
             throw new IllegalArgumentException("Row and col must be non-negative");
         }
+        if (owner < 0 || owner > 2) {
+            throw new IllegalArgumentException("Invalid owner " + owner);
+        }
+        if (row >= BitBoard.ROWS || col >= BitBoard.COLS) {
+            return;
+        }
+
+        long bit = cellBit(row, col);
+        long first = owner == 1 ? mask1 | bit : mask1 & ~bit;
+        long second = owner == 2 ? mask2 | bit : mask2 & ~bit;
+        if (first != mask1 || second != mask2) {
+            mask1 = first;
+            mask2 = second;
+            moves.clear();
+            writeFile();
+        }
+    }
+
+    /**
+     * @brief Salva la posizione di una partita, con le mosse se la cronologia è completa.
+     *
+     * Sostituisce l'intera griglia, quindi non passa dal giornale: viene salvata con una
+     * nuova istantanea. Per salvare mossa per mossa si registra il `SaveHandler` come
+     * `GameListener` della partita.
+     *
+     * @param model La partita da salvare.
+     */
+    public synchronized void saveGame(GameModel model) {
+        BitBoard board = model.getBoard();
+        mask1 = board.getMask(1);
+        mask2 = board.getMask(2);
+        moves = new ArrayList<>();
+        if (model.getMoves().size() == model.getMoveCount()) {
+            moves.addAll(model.getMoves());
+        }
+        writeFile();
+    }
+
+    /**
+     * @brief Ricostruisce la partita salvata.
+     *
+     * Se le mosse salvate portano alla posizione salvata vengono rigiocate, così la
+     * partita ha la cronologia completa; altrimenti la posizione viene ricostruita
+     * dalle celle con `GameModel.fromOwners`.
+     *
+     * @return La partita salvata.
+     */
+    public synchronized GameModel loadGame() {
+        if (!moves.isEmpty()) {
+            GameModel model = new GameModel();
+            try {
+                for (int col : moves) {
+                    model.play(col);
+                }
+                BitBoard board = model.getBoard();
+                if (board.getMask(1) == mask1 && board.getMask(2) == mask2) {
+                    return model;
+                }
+            } catch (IllegalArgumentException | IllegalStateException ex) {
+                // Mosse non coerenti: si usano le celle
+            }
+        }
+
+        int[][] owners = new int[BitBoard.ROWS][BitBoard.COLS];
+        for (int row = 0; row < BitBoard.ROWS; row++) {
+            for (int col = 0; col < BitBoard.COLS; col++) {
+                long bit = cellBit(row, col);
+                owners[row][col] = (mask1 & bit) != 0 ? 1 : (mask2 & bit) != 0 ? 2 : 0;
+            }
+        }
+        return GameModel.fromOwners(owners);
+    }
+
+    /**
+     * @brief Registra nel giornale una pedina inserita nella partita.
+     *
+     * @param row La riga della pedina.
+     * @param col La colonna della pedina.
+     * @param playerCode Il codice del giocatore.
+     */
+    @Override
+    public synchronized void tokenPlaced(int row, int col, int playerCode) {
+        applyMove(col, playerCode);
+        record(MoveJournal.moveRecord(col, playerCode));
+    }
+
+    /**
+     * @brief Registra nel giornale una mossa annullata nella partita.
+     *
+     * @param row La riga della pedina tolta.
+     * @param col La colonna della pedina tolta.
+     */
+    @Override
+    public synchronized void tokenRemoved(int row, int col) {
+        applyUndo(col);
+        record(MoveJournal.undoRecord(col));
+    }
+
+    /**
+     * @brief Svuota la griglia salvata, per iniziare una nuova partita.
+     */
+    public synchronized void clearGame() {
+        applyClear();
+        record(MoveJournal.clearRecord());
+    }
+
+    /**
+     * @brief Accoda un record per il giornale e chiede al thread di scrittura di salvarlo.
+     *
+     * Se è già richiesta una nuova istantanea il record non serve: la comprende.
+     *
+     * @param data Il record codificato.
+     */
+    private void record(byte[] data) {
+        if (!snapshotRequested && journal != null) {
+            pendingRecords.write(data, 0, data.length);
+            pendingCount++;
+        } else {
+            snapshotRequested = true;
+        }
+        schedule();
+    }
+
+    /**
+     * @brief Chiede al `PersistenceService` di eseguire `persist`.
+     *
+     * Le richieste ancora in attesa si fondono in una sola; durante il costruttore
+     * il servizio non è ancora assegnato e la richiesta viene fatta alla fine.
+     */
+    private void schedule() {
+        if (persistence != null) {
+            persistence.submit(filePath, this::persist);
+        }
+    }
 
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject jsonObject = jsonArray.getJSONObject(i);
-            if (jsonObject.getInt("row") == row && jsonObject.getInt("col") == col) {
-                this.save.getJSONArray("grid").getJSONObject(i).put("owner", owner);
+    /**
+     * @brief Scrive su disco le modifiche accumulate. Eseguito dal thread di scrittura.
+     *
+     * Lo stato viene copiato sotto il lock e scritto fuori, così chi gioca non aspetta
+     * mai il disco. Se è richiesta un'istantanea (o il giornale ha raggiunto
+     * `COMPACT_RECORDS` record) viene scritta quella, altrimenti i record accodati
+     * vengono aggiunti al giornale tutti insieme. In caso di errore la prossima
+     * scrittura sarà un'istantanea completa.
+     */
+    private void persist() {
+        long first;
+        long second;
+        List<Integer> columns;
+        Map<String, String> entries;
+        byte[] records;
+        int count;
+        boolean snapshot;
+        synchronized (this) {
+            snapshot = snapshotRequested || journal == null || journal.getRecords() + pendingCount >= COMPACT_RECORDS;
+            if (!snapshot && pendingCount == 0) {
                 return;
             }
+            first = mask1;
+            second = mask2;
+            columns = new ArrayList<>(moves);
+            entries = new LinkedHashMap<>(names);
+            records = pendingRecords.toByteArray();
+            count = pendingCount;
+            pendingRecords.reset();
+            pendingCount = 0;
+            snapshotRequested = false;
+        }
+
+        try {
+            if (snapshot) {
+                writeSnapshot(first, second, columns, entries);
+            } else {
+                journal.append(records, count);
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(SaveHandler.class.getName()).log(Level.SEVERE, null, ex);
+            synchronized (this) {
+                snapshotRequested = true;
+                pendingRecords.reset();
+                pendingCount = 0;
+            }
         }
     }
-    
+
     /**
-     * @brief Scrive i dati di salvataggio nel file JSON.
-     * 
-     * Questo metodo salva lo stato attuale del gioco nel file specificato da `filePath`.
+     * @brief Inserisce una pedina nella griglia in memoria.
+     *
+     * @param col La colonna.
+     * @param playerCode Il codice del giocatore.
+     * @throws IllegalArgumentException Se la colonna o il giocatore non sono validi, o la colonna è piena.
      */
-    public void writeFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write(this.save.toString(4));
-            System.out.println(this.save.toString(4));
-        } catch (IOException ex) { 
-           ex.printStackTrace();
+    void applyMove(int col, int playerCode) {
+        if (col < 0 || col >= BitBoard.COLS || (playerCode != 1 && playerCode != 2)) {
+            throw new IllegalArgumentException("Invalid move " + col + " for player " + playerCode);
+        }
+        long column = COLUMN_MASK << (col * COLUMN_BITS);
+        int height = Long.bitCount((mask1 | mask2) & column);
+        if (height == BitBoard.ROWS) {
+            throw new IllegalArgumentException("Column " + col + " is full");
+        }
+        // Le mosse restano note solo se lo erano tutte le precedenti
+        if (moves.size() == Long.bitCount(mask1 | mask2)) {
+            moves.add(col);
+        }
+        long bit = 1L << (col * COLUMN_BITS + height);
+        if (playerCode == 1) {
+            mask1 |= bit;
+        } else {
+            mask2 |= bit;
         }
     }
-    
+
     /**
-     * @brief Controlla se tutti gli owner nelle celle della griglia sono zero.
-     * 
-     * @return `true` se tutti gli owner sono zero, altrimenti `false`.
+     * @brief Toglie la pedina più alta di una colonna dalla griglia in memoria.
+     *
+     * @param col La colonna.
+     * @throws IllegalArgumentException Se la colonna non esiste o è vuota.
+     */
+    void applyUndo(int col) {
+        if (col < 0 || col >= BitBoard.COLS) {
+            throw new IllegalArgumentException("Invalid column " + col);
+        }
+        long column = COLUMN_MASK << (col * COLUMN_BITS);
+        int height = Long.bitCount((mask1 | mask2) & column);
+        if (height == 0) {
+            throw new IllegalArgumentException("Column " + col + " is empty");
+        }
+        if (!moves.isEmpty() && moves.get(moves.size() - 1) == col) {
+            moves.remove(moves.size() - 1);
+        } else {
+            moves.clear();
+        }
+        long bit = 1L << (col * COLUMN_BITS + height - 1);
+        mask1 &= ~bit;
+        mask2 &= ~bit;
+    }
+
+    /**
+     * @brief Svuota la griglia in memoria.
      */
-    public boolean allOwnersAreZero() {
-        JSONArray jsonArray = this.save.getJSONArray("grid");
+    void applyClear() {
+        mask1 = 0;
+        mask2 = 0;
+        moves = new ArrayList<>();
+    }
 
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject jsonObject = jsonArray.getJSONObject(i);
-            if (jsonObject.getInt("owner") != 0) {
-                return false; // Restituisce false se trova un owner diverso da 0
+    /**
+     * @brief Imposta un nome in memoria.
+     *
+     * @param id L'ID associato al nome.
+     * @param name Il nome da salvare.
+     * @throws IllegalArgumentException Se i nomi sono già 255.
+     */
+    void applyName(String id, String name) {
+        if (!names.containsKey(id) && names.size() == 255) {
+            throw new IllegalArgumentException("Too many names in the save file");
+        }
+        names.put(id, name);
+    }
+
+    /**
+     * @brief Restituisce le mosse salvate.
+     *
+     * @return Una copia delle colonne giocate in ordine, vuota se l'ordine non è noto.
+     */
+    public synchronized List<Integer> getMoves() {
+        return new ArrayList<>(moves);
+    }
+
+    /**
+     * @brief Chiede di scrivere i dati di salvataggio nel file binario.
+     *
+     * La scrittura avviene sul thread del `PersistenceService`, come nuova istantanea
+     * che comprende (e svuota) il giornale; per attenderla si usa `flush`.
+     */
+    public synchronized void writeFile() {
+        snapshotRequested = true;
+        pendingRecords.reset();
+        pendingCount = 0;
+        schedule();
+    }
+
+    /**
+     * @brief Aspetta che tutte le modifiche richieste finora siano su disco.
+     */
+    public void flush() {
+        if (persistence != null) {
+            persistence.flush();
+        }
+    }
+
+    /**
+     * @brief Scrive una nuova istantanea nel file specificato da `filePath` e svuota il giornale.
+     *
+     * Il file viene scritto accanto, reso persistente e poi rinominato al posto del
+     * precedente, quindi una scrittura interrotta non danneggia l'istantanea in uso.
+     *
+     * @param first Celle del giocatore con codice 1.
+     * @param second Celle del giocatore con codice 2.
+     * @param columns Le mosse in ordine, vuota se l'ordine non è noto.
+     * @param entries I nomi salvati.
+     * @throws IOException Se il file non può essere scritto.
+     */
+    private void writeSnapshot(long first, long second, List<Integer> columns, Map<String, String> entries) throws IOException {
+        Path path = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+        long next = generation + 1;
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(next);
+            out.writeLong(first);
+            out.writeLong(second);
+            out.writeByte(columns.size());
+            for (int col : columns) {
+                out.writeByte(col);
+            }
+            out.writeByte(entries.size());
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
             }
+            out.flush();
+            file.getFD().sync();
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = next;
+        if (journal != null) {
+            journal.reset(generation);
         }
-        return true; // Restituisce true se tutti gli owner sono 0
+    }
+
+    /**
+     * @brief Controlla se tutti gli owner nelle celle della griglia sono zero.
+     *
+     * @return `true` se tutti gli owner sono zero, altrimenti `false`.
+     */
+    public synchronized boolean allOwnersAreZero() {
+        return (mask1 | mask2) == 0;
     }
 
     /**
      * @brief Imposta un nome associato a un ID nel file di salvataggio.
-     * 
+     *
      * @param id L'ID associato al nome.
      * @param name Il nome da salvare.
      */
-    public void setName(String id, String name){
-        save.put(id, name);
+    public synchronized void setName(String id, String name){
+        applyName(id, name);
+        record(MoveJournal.nameRecord(id, name));
     }
-    
+
     /**
      * @brief Recupera un nome associato a un ID dal file di salvataggio.
-     * 
+     *
      * @param id L'ID di cui recuperare il nome.
-     * @return Il nome associato all'ID, o `null` se non esiste.
+     * @return Il nome associato all'ID, o una stringa vuota se non esiste.
      */
-    public String getName(String id){
-        return this.save.optString(id);
+    public synchronized String getName(String id){
+        return names.getOrDefault(id, "");
     }
 }
@@ -0,0 +1,208 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * @class SearchStats
+ * @brief Statistiche della ricerca di una strategia, pubblicate come MBean.
+ *
+ * La strategia registra ogni mossa con `recordMove` o `recordSearch`; i client JMX
+ * leggono i valori aggregati tramite `SearchStatsMBean`. Le latenze percentili sono
+ * calcolate sulle ultime `LATENCY_SAMPLES` mosse e l'occupazione della tabella è quella
+ * dell'ultima ricerca; gli altri valori, compreso il tasso di successo della tabella,
+ * su tutte le mosse dall'ultimo `reset`. Scrittura e lettura avvengono su thread diversi (la ricerca
+ * e il thread RMI di JMX), quindi i metodi sono sincronizzati: costano poco, una
+ * volta per mossa.
+ *
+ * Ogni nome ha un solo MBean per tutta l'esecuzione: le strategie create per le partite
+ * successive ricevono le stesse statistiche, che quindi si accumulano tra una partita e
+ * l'altra fino a un `reset` esplicito. Le statistiche non tengono riferimenti alla
+ * tabella delle trasposizioni: i conteggi arrivano dalla ricerca a ogni mossa, quindi la
+ * tabella di una partita finita può essere liberata.
+ */
+public class SearchStats implements SearchStatsMBean {
+
+    public static final String DOMAIN = "ciroangarella.gioco_forza_4_albero_min_max";  ///< Dominio JMX di tutte le statistiche.
+
+    private static final int LATENCY_SAMPLES = 1024;  ///< Mosse su cui si calcolano i percentili.
+
+    private static final Map<String, SearchStats> REGISTERED = new HashMap<>();  ///< Statistiche già registrate, per nome.
+
+    private long movesChosen;  ///< Mosse scelte, con o senza ricerca.
+    private long searches;  ///< Mosse scelte con la ricerca alfa-beta.
+    private long nodes;  ///< Nodi visitati da tutte le ricerche.
+    private long searchNanos;  ///< Tempo totale delle mosse con ricerca.
+    private long depthSum;  ///< Somma delle profondità raggiunte.
+    private int maxDepth;  ///< Profondità massima raggiunta.
+    private long cutoffs;  ///< Nodi terminati con un taglio.
+    private long firstMoveCutoffs;  ///< Tagli causati dalla prima colonna provata.
+    private long tableProbes;  ///< Ricerche nella tabella delle trasposizioni.
+    private long tableHits;  ///< Ricerche nella tabella andate a buon fine.
+    private double tableOccupancy;  ///< Occupazione della tabella alla fine dell'ultima ricerca.
+    private long[] latencies = new long[LATENCY_SAMPLES];  ///< Buffer circolare dei tempi per mossa, in nanosecondi.
+
+    /**
+     * @brief Costruttore delle statistiche, senza registrazione JMX.
+     */
+    public SearchStats() {
+    }
+
+    /**
+     * @brief Restituisce le statistiche di un nome, registrandole nel server MBean della
+     * piattaforma alla prima richiesta.
+     *
+     * Il nome JMX è `DOMAIN:type=SearchStats,name=<name>`. Se il nome è già registrato
+     * (la partita prima) vengono restituite le stesse statistiche. Se la registrazione
+     * fallisce le statistiche vengono raccolte comunque.
+     *
+     * @param name Il nome della strategia.
+     * @return Le statistiche da aggiornare a ogni mossa.
+     */
+    public static synchronized SearchStats register(String name) {
+        SearchStats stats = REGISTERED.get(name);
+        if (stats != null) {
+            return stats;
+        }
+
+        stats = new SearchStats();
+        REGISTERED.put(name, stats);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(stats, new ObjectName(DOMAIN + ":type=SearchStats,name=" + name));
+        } catch (JMException ex) {
+            Logger.getLogger(SearchStats.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return stats;
+    }
+
+    /**
+     * @brief Registra una mossa scelta senza ricerca (pondering, libro, risolutore, mossa obbligata).
+     *
+     * @param nanos Il tempo impiegato, in nanosecondi.
+     */
+    synchronized void recordMove(long nanos) {
+        latencies[(int) (movesChosen % LATENCY_SAMPLES)] = nanos;
+        movesChosen++;
+    }
+
+    /**
+     * @brief Registra una mossa scelta con la ricerca alfa-beta.
+     *
+     * @param nanos Il tempo impiegato, in nanosecondi.
+     * @param search La ricerca appena terminata, da cui leggere nodi, tagli, profondità
+     * e uso della tabella.
+     */
+    synchronized void recordSearch(long nanos, MinMaxSearch search) {
+        recordMove(nanos);
+        searches++;
+        searchNanos += nanos;
+        nodes += search.getNodes();
+        cutoffs += search.getCutoffs();
+        firstMoveCutoffs += search.getFirstMoveCutoffs();
+        depthSum += search.getCompletedDepth();
+        maxDepth = Math.max(maxDepth, search.getCompletedDepth());
+        tableProbes += search.getTableProbes();
+        tableHits += search.getTableHits();
+        tableOccupancy = search.getTable().getOccupancy();
+    }
+
+    @Override
+    public synchronized long getMovesChosen() {
+        return movesChosen;
+    }
+
+    @Override
+    public synchronized long getSearches() {
+        return searches;
+    }
+
+    @Override
+    public synchronized long getNodesSearched() {
+        return nodes;
+    }
+
+    @Override
+    public synchronized double getNodesPerSecond() {
+        return searchNanos == 0 ? 0 : nodes * 1e9 / searchNanos;
+    }
+
+    @Override
+    public synchronized double getAverageDepth() {
+        return searches == 0 ? 0 : (double) depthSum / searches;
+    }
+
+    @Override
+    public synchronized int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public synchronized double getLatencyP50Millis() {
+        return latencyPercentile(50);
+    }
+
+    @Override
+    public synchronized double getLatencyP99Millis() {
+        return latencyPercentile(99);
+    }
+
+    @Override
+    public synchronized double getTableOccupancy() {
+        return tableOccupancy;
+    }
+
+    @Override
+    public synchronized double getTableHitRate() {
+        return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+    }
+
+    @Override
+    public synchronized double getCutoffRatio() {
+        return nodes == 0 ? 0 : (double) cutoffs / nodes;
+    }
+
+    @Override
+    public synchronized double getFirstMoveCutoffRatio() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    @Override
+    public synchronized void reset() {
+        movesChosen = 0;
+        searches = 0;
+        nodes = 0;
+        searchNanos = 0;
+        depthSum = 0;
+        maxDepth = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        tableOccupancy = 0;
+    }
+
+    /**
+     * @brief Calcola un percentile dei tempi per mossa con il metodo nearest-rank.
+     *
+     * @param percentile Il percentile, tra 1 e 100.
+     * @return Il tempo in millisecondi, 0 se non ci sono mosse.
+     */
+    private double latencyPercentile(int percentile) {
+        int count = (int) Math.min(movesChosen, LATENCY_SAMPLES);
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[rank - 1] / 1e6;
+    }
+}
@@ -0,0 +1,104 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+/**
+ * @interface SearchStatsMBean
+ * @brief Interfaccia JMX delle statistiche di ricerca di una strategia.
+ *
+ * Ogni getter diventa un attributo in sola lettura visibile da JConsole o da qualunque
+ * client JMX; `reset` è un'operazione. Le statistiche sono raccolte da `SearchStats`.
+ */
+public interface SearchStatsMBean {
+
+    /**
+     * @brief Restituisce le mosse scelte, comprese quelle senza ricerca.
+     *
+     * @return Il numero di mosse.
+     */
+    public long getMovesChosen();
+
+    /**
+     * @brief Restituisce le mosse che hanno richiesto una ricerca alfa-beta.
+     *
+     * @return Il numero di ricerche.
+     */
+    public long getSearches();
+
+    /**
+     * @brief Restituisce i nodi visitati da tutte le ricerche.
+     *
+     * @return Il numero di nodi.
+     */
+    public long getNodesSearched();
+
+    /**
+     * @brief Restituisce la velocità media della ricerca.
+     *
+     * @return I nodi visitati al secondo.
+     */
+    public double getNodesPerSecond();
+
+    /**
+     * @brief Restituisce la profondità media raggiunta dalle ricerche.
+     *
+     * @return La profondità media dopo la mossa del bot.
+     */
+    public double getAverageDepth();
+
+    /**
+     * @brief Restituisce la profondità massima raggiunta da una ricerca.
+     *
+     * @return La profondità massima dopo la mossa del bot.
+     */
+    public int getMaxDepth();
+
+    /**
+     * @brief Restituisce la mediana del tempo per mossa sulle ultime mosse.
+     *
+     * @return Il 50° percentile in millisecondi.
+     */
+    public double getLatencyP50Millis();
+
+    /**
+     * @brief Restituisce il 99° percentile del tempo per mossa sulle ultime mosse.
+     *
+     * @return Il 99° percentile in millisecondi.
+     */
+    public double getLatencyP99Millis();
+
+    /**
+     * @brief Restituisce la frazione di slot occupati della tabella delle trasposizioni
+     * alla fine dell'ultima ricerca.
+     *
+     * @return L'occupazione, tra 0 e 1.
+     */
+    public double getTableOccupancy();
+
+    /**
+     * @brief Restituisce il tasso di successo delle ricerche nella tabella delle trasposizioni,
+     * su tutte le mosse con ricerca dall'ultimo `reset`.
+     *
+     * @return Il rapporto tra posizioni trovate e cercate, tra 0 e 1.
+     */
+    public double getTableHitRate();
+
+    /**
+     * @brief Restituisce la frazione di nodi terminati con un taglio alfa-beta.
+     *
+     * @return Il rapporto tra tagli e nodi, tra 0 e 1.
+     */
+    public double getCutoffRatio();
+
+    /**
+     * @brief Restituisce la frazione di tagli causati dalla prima colonna provata.
+     *
+     * Vicino a 1 indica un ordinamento delle mosse quasi perfetto.
+     *
+     * @return Il rapporto tra tagli alla prima colonna e tagli totali, tra 0 e 1.
+     */
+    public double getFirstMoveCutoffRatio();
+
+    /**
+     * @brief Azzera i contatori, compresi quelli della tabella delle trasposizioni (non la tabella).
+     */
+    public void reset();
+}
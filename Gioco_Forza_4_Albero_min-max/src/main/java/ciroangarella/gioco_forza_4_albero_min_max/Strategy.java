@@ -12,8 +12,37 @@ public interface Strategy {
     /**
      * @brief Sceglie il movimento da eseguire sulla griglia di gioco.
      * 
-     * @param grid La matrice di token che rappresenta la griglia di gioco.
+     * @param board La griglia di gioco, convertita in `BitBoard` una sola volta per mossa.
      * @return La colonna in cui effettuare il movimento.
      */
-    public int chooseMove(Token grid[][]);
+    public int chooseMove(BitBoard board);
+
+    /**
+     * @brief Avvia la ricerca in background durante il turno del giocatore umano.
+     * 
+     * Chiamato subito dopo la mossa del bot: la strategia può cercare in anticipo le
+     * risposte alle mosse più probabili del giocatore. Di default non fa nulla.
+     * 
+     * @param board La griglia dopo la mossa del bot, con il giocatore di turno.
+     */
+    public default void startPondering(BitBoard board) {
+    }
+
+    /**
+     * @brief Interrompe la ricerca in background avviata con `startPondering`.
+     * 
+     * Chiamato quando la partita finisce; `chooseMove` la interrompe da sola.
+     * Di default non fa nulla.
+     */
+    public default void stopPondering() {
+    }
+
+    /**
+     * @brief Chiede di interrompere al più presto la `chooseMove` in corso su un altro thread.
+     * 
+     * La mossa restituita dalla ricerca interrotta va scartata. Di default non fa nulla:
+     * la ricerca termina normalmente.
+     */
+    public default void cancelSearch() {
+    }
 }
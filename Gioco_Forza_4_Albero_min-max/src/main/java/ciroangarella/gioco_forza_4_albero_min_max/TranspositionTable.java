@@ -0,0 +1,217 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class TranspositionTable
+ * @brief Tabella a dimensione fissa che memorizza i risultati già calcolati dalla ricerca.
+ *
+ * La stessa posizione del Forza 4 si raggiunge con molti ordini di mosse diversi: la tabella,
+ * indicizzata dalla chiave di Zobrist della `BitBoard`, evita di ricalcolarla ogni volta.
+ *
+ * Ogni bucket contiene due slot: il primo conserva il risultato della ricerca più profonda
+ * (depth-preferred), il secondo viene sempre sovrascritto (always-replace). Ogni voce
+ * memorizza punteggio, profondità, tipo di limite (esatto, inferiore, superiore) e mossa migliore.
+ *
+ * La tabella può essere condivisa da più thread senza lock: nello slot della chiave si
+ * salva `hash ^ dati`, quindi una voce letta mentre un altro thread la sta scrivendo
+ * (chiave e dati di due scritture diverse) non supera il controllo e viene ignorata.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;  ///< Il punteggio è il valore esatto della posizione.
+    public static final int LOWER = 1;  ///< Il punteggio è un limite inferiore (taglio beta).
+    public static final int UPPER = 2;  ///< Il punteggio è un limite superiore (nessuna mossa ha superato alpha).
+
+    public static final int NO_MOVE = 7;  ///< Valore della mossa quando la voce non ne contiene una.
+
+    private static final int ENTRY_BYTES = 16;  ///< Byte occupati da una voce (chiave + dati).
+    private static final long VALID = 1L << 40;  ///< Bit sempre acceso nei dati, distingue una voce da uno slot vuoto.
+    private static final int OCCUPANCY_SAMPLE = 4096;  ///< Slot esaminati da `getOccupancy`.
+
+    private long[] keys;  ///< Chiavi di Zobrist in XOR con i dati, due slot consecutivi per bucket.
+    private long[] data;  ///< Dati compressi delle voci, allineati a `keys`.
+    private int bucketMask;  ///< Maschera per ricavare il bucket dalla chiave.
+
+    private LongAdder probes = new LongAdder();  ///< Numero di ricerche effettuate.
+    private LongAdder hits = new LongAdder();  ///< Numero di ricerche che hanno trovato la posizione.
+
+    /**
+     * @brief Costruttore della tabella.
+     *
+     * Il numero di bucket è arrotondato per difetto alla potenza di due più vicina
+     * che rientra nella memoria indicata.
+     *
+     * @param sizeMb Memoria da dedicare alla tabella, in megabyte.
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Table size must be positive");
+        }
+        long buckets = Long.highestOneBit((long) sizeMb * 1024 * 1024 / (2 * ENTRY_BYTES));
+        buckets = Math.min(buckets, 1L << 29);
+        keys = new long[(int) buckets * 2];
+        data = new long[(int) buckets * 2];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * @brief Cerca una posizione nella tabella.
+     *
+     * @param hash La chiave di Zobrist della posizione.
+     * @return I dati compressi della voce, oppure 0 se la posizione non è presente.
+     * Usare `getScore`, `getDepth`, `getBound` e `getMove` per leggerli.
+     */
+    public long probe(long hash) {
+        probes.increment();
+        int slot = ((int) hash & bucketMask) << 1;
+        for (int i = slot; i < slot + 2; i++) {
+            long entry = data[i];
+            if (entry != 0 && (keys[i] ^ entry) == hash) {
+                hits.increment();
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @brief Salva il risultato della ricerca di una posizione.
+     *
+     * Lo slot depth-preferred viene sostituito solo da una ricerca almeno altrettanto
+     * profonda o dalla stessa posizione; altrimenti si scrive nello slot always-replace.
+     *
+     * @param hash La chiave di Zobrist della posizione.
+     * @param depth La profondità residua della ricerca.
+     * @param score Il punteggio trovato.
+     * @param bound Il tipo di limite (`EXACT`, `LOWER` o `UPPER`).
+     * @param move La mossa migliore, o `NO_MOVE`.
+     */
+    public void store(long hash, int depth, int score, int bound, int move) {
+        int slot = ((int) hash & bucketMask) << 1;
+        long entry = VALID
+                | ((long) (score & 0xFFFF))
+                | ((long) (depth & 0xFF) << 16)
+                | ((long) (bound & 0x3) << 24)
+                | ((long) (move & 0xF) << 28);
+
+        long current = data[slot];
+        if (current == 0 || (keys[slot] ^ current) == hash || depth >= getDepth(current)) {
+            keys[slot] = hash ^ entry;
+            data[slot] = entry;
+        } else {
+            keys[slot + 1] = hash ^ entry;
+            data[slot + 1] = entry;
+        }
+    }
+
+    /**
+     * @brief Estrae il punteggio da una voce.
+     *
+     * @param entry I dati restituiti da `probe`.
+     * @return Il punteggio memorizzato.
+     */
+    public static int getScore(long entry) {
+        return (short) (entry & 0xFFFF);
+    }
+
+    /**
+     * @brief Estrae la profondità residua da una voce.
+     *
+     * @param entry I dati restituiti da `probe`.
+     * @return La profondità a cui è stata cercata la posizione.
+     */
+    public static int getDepth(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    /**
+     * @brief Estrae il tipo di limite da una voce.
+     *
+     * @param entry I dati restituiti da `probe`.
+     * @return `EXACT`, `LOWER` oppure `UPPER`.
+     */
+    public static int getBound(long entry) {
+        return (int) (entry >>> 24) & 0x3;
+    }
+
+    /**
+     * @brief Estrae la mossa migliore da una voce.
+     *
+     * @param entry I dati restituiti da `probe`.
+     * @return La colonna migliore, o `NO_MOVE`.
+     */
+    public static int getMove(long entry) {
+        return (int) (entry >>> 28) & 0xF;
+    }
+
+    /**
+     * @brief Svuota la tabella e azzera le statistiche.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * @brief Restituisce il numero di voci che la tabella può contenere.
+     *
+     * @return La capacità in voci.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * @brief Restituisce il numero di ricerche effettuate.
+     *
+     * @return Le ricerche dall'ultima `clear`.
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * @brief Restituisce il numero di ricerche andate a buon fine.
+     *
+     * @return Le posizioni trovate dall'ultima `clear`.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @brief Restituisce la percentuale di ricerche andate a buon fine.
+     *
+     * Serve a dimensionare la tabella: un tasso basso con molte ricerche indica
+     * che la memoria assegnata è troppo poca.
+     *
+     * @return Il rapporto tra `hits` e `probes`, tra 0 e 1.
+     */
+    public double getHitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    /**
+     * @brief Stima la frazione di slot occupati.
+     *
+     * Le chiavi di Zobrist distribuiscono le voci in modo uniforme, quindi basta
+     * contare i primi `OCCUPANCY_SAMPLE` slot invece di scorrere tutta la tabella.
+     *
+     * @return La frazione di slot occupati, tra 0 e 1.
+     */
+    public double getOccupancy() {
+        int sample = Math.min(OCCUPANCY_SAMPLE, data.length);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (data[i] != 0) {
+                used++;
+            }
+        }
+        return (double) used / sample;
+    }
+}
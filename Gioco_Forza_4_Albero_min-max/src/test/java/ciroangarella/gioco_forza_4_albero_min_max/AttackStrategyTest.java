@@ -0,0 +1,109 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class AttackStrategyTest
+ * @brief Verifica il risolutore di fine partita dentro `AttackStrategy` (tempo per mossa e
+ * risultato dimostrato) e le statistiche delle mosse scelte durante il pondering.
+ */
+public class AttackStrategyTest {
+
+    private static final String SLOW_ENDGAME = "226423324324462";  ///< 27 celle vuote: risolverla richiede circa mezzo secondo.
+    private static final long MOVE_TIME = 50;  ///< Tempo per mossa del test, in millisecondi.
+    private static final long MAX_LATENCY_MS = 300;  ///< Attesa massima tollerata, con margine per macchine lente.
+    private static final long SEED = 20240613L;  ///< Seme delle posizioni di prova.
+    private static final int POSITIONS = 20;  ///< Posizioni confrontate con il minimax esaustivo.
+    private static final String PONDER_POSITION = "0606";  ///< Tocca al giocatore: se gioca la colonna 0 il bot deve bloccarla.
+    private static final long PONDER_DELAY_MS = 100;  ///< Ritardo della ricerca del pondering, dopo l'inizio di `chooseMove`.
+
+    private InterfacePlayer player = new Player();  ///< Giocatore umano (codice 1).
+    private InterfacePlayer bot = new Bot();  ///< Giocatore bot (codice 2).
+
+    @Test
+    public void solverRespectsMoveTime() {
+        BitBoard board = BitBoard.fromMoves(SLOW_ENDGAME);
+        // La posizione ha un numero dispari di mosse: tocca al bot
+        AttackStrategy strategy = new AttackStrategy(player, bot, 1);
+        strategy.setOpeningBook(OpeningBook.EMPTY);
+        strategy.setEndgameThreshold(BitBoard.ROWS * BitBoard.COLS);
+        strategy.setMoveTime(MOVE_TIME);
+
+        long start = System.nanoTime();
+        int move = strategy.chooseMove(board);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(millis < MAX_LATENCY_MS, "move took " + millis + " ms");
+        assertTrue(board.canPlay(move), "column " + move);
+    }
+
+    @Test
+    public void provenResultMatchesBruteForce() {
+        Random random = new Random(SEED);
+        int checked = 0;
+        while (checked < POSITIONS) {
+            BitBoard board = EndgameSolverTest.positions(random, 1).get(0);
+            // Tocca al bot e la mossa non è obbligata: la sceglie il risolutore
+            if (board.getMoveCount() % 2 == 0 || board.forcedMove(bot.getPlayerCode()) >= 0) {
+                continue;
+            }
+            checked++;
+            AttackStrategy strategy = new AttackStrategy(player, bot, 1);
+            strategy.setOpeningBook(OpeningBook.EMPTY);
+            strategy.chooseMove(board);
+
+            int expected = EndgameSolverTest.bruteForce(board);
+            String position = board.getMoveCount() + " moves, hash " + board.getHash();
+            assertEquals(Integer.signum(expected), Integer.signum(strategy.getProvenScore()), "winner at " + position);
+            assertEquals(EndgameSolverTest.pliesToEnd(board, expected), strategy.getProvenPliesToEnd(), "plies at " + position);
+        }
+    }
+
+    @Test
+    public void forcedMoveAfterPonderingIsNotRecordedAsSearch() throws InterruptedException {
+        // La prima ricerca del pondering parte solo dopo che `chooseMove` è iniziata
+        CountDownLatch pondering = new CountDownLatch(1);
+        AttackStrategy strategy = new AttackStrategy(player, bot, 1, "AttackStrategyTest") {
+            @Override
+            protected int searchMove(BitBoard board) {
+                if (pondering.getCount() > 0) {
+                    pondering.countDown();
+                    try {
+                        Thread.sleep(PONDER_DELAY_MS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.searchMove(board);
+            }
+        };
+        strategy.setOpeningBook(OpeningBook.EMPTY);
+        SearchStats stats = strategy.getSearchStats();
+        stats.reset();
+
+        BitBoard board = BitBoard.fromMoves(PONDER_POSITION);
+        strategy.startPondering(board);
+        pondering.await();
+        board.play(0, player.getPlayerCode());
+        assertEquals(0, strategy.chooseMove(board));
+
+        // La mossa obbligata non usa la ricerca, anche se il pondering l'aveva avviata
+        assertEquals(1, stats.getMovesChosen());
+        assertEquals(0, stats.getSearches());
+    }
+
+    @Test
+    public void searchedMoveHasNoProvenResult() {
+        AttackStrategy strategy = new AttackStrategy(player, bot, 1);
+        strategy.setOpeningBook(OpeningBook.EMPTY);
+        strategy.setDepth(4);
+        strategy.chooseMove(BitBoard.fromMoves("3"));
+        assertEquals(-1, strategy.getProvenPliesToEnd());
+        assertEquals(0, strategy.getProvenScore());
+    }
+}
@@ -0,0 +1,147 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class EndgameSolverTest
+ * @brief Verifica i risultati di `EndgameSolver` e il suo segnale di arresto.
+ *
+ * Vincitore e mosse alla fine (`getPliesToEnd`) vengono confrontati con un minimax
+ * esaustivo su posizioni con poche celle vuote, generate da un seme fisso. La posizione
+ * `MOVES` ha 23 celle vuote: risolverla richiede oltre centomila nodi, quindi un segnale
+ * di arresto già impostato la interrompe al primo controllo.
+ */
+public class EndgameSolverTest {
+
+    private static final String MOVES = "2264233243244624150";  ///< Posizione di prova, 23 celle vuote.
+    private static final int TABLE_MB = 16;  ///< Memoria della tabella del risolutore.
+    private static final long SEED = 20240612L;  ///< Seme delle posizioni di prova.
+    private static final int POSITIONS = 40;  ///< Numero di posizioni confrontate con il minimax esaustivo.
+    private static final int MAX_EMPTY = 10;  ///< Celle vuote massime delle posizioni di prova.
+    private static final int WIN = 100;  ///< Valore di `bruteForce` per una vittoria a zero mosse.
+
+    @Test
+    public void pliesToEndMatchBruteForce() {
+        for (BitBoard board : positions(new Random(SEED), POSITIONS)) {
+            int expected = bruteForce(board);
+            String position = board.getMoveCount() + " moves, hash " + board.getHash();
+
+            EndgameSolver solver = new EndgameSolver(new TranspositionTable(1));
+            int score = solver.solve(board);
+            assertEquals(Integer.signum(expected), Integer.signum(score), "winner at " + position);
+            assertEquals(pliesToEnd(board, expected), EndgameSolver.getPliesToEnd(score, board.getMoveCount()), "plies at " + position);
+
+            // Il punteggio della mossa scelta è lo stesso della posizione
+            solver.chooseMove(board);
+            assertEquals(score, solver.getLastScore(), "move score at " + position);
+        }
+    }
+
+    @Test
+    public void stopSignalAbortsAtFirstCheck() {
+        BitBoard board = BitBoard.fromMoves(MOVES);
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(TABLE_MB));
+
+        int move = solver.chooseMove(board, new AtomicBoolean(true));
+        assertTrue(solver.isAborted());
+        assertTrue(solver.getNodes() <= 1024, "visited " + solver.getNodes() + " nodes after stop");
+        assertTrue(board.canPlay(move), "column " + move);
+    }
+
+    @Test
+    public void abortedSolveDoesNotChangeLaterResult() {
+        BitBoard board = BitBoard.fromMoves(MOVES);
+        EndgameSolver fresh = new EndgameSolver(new TranspositionTable(TABLE_MB));
+        int expectedMove = fresh.chooseMove(board);
+        assertFalse(fresh.isAborted());
+
+        // Stessa tabella dopo una risoluzione interrotta: nessun valore incompleto deve restarci
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(TABLE_MB));
+        solver.chooseMove(board, new AtomicBoolean(true));
+        int move = solver.chooseMove(board);
+        assertFalse(solver.isAborted());
+        assertEquals(fresh.getLastScore(), solver.getLastScore());
+        assertEquals(expectedMove, move);
+    }
+
+    /**
+     * @brief Genera posizioni di fine partita senza vincitore, con chiunque di turno.
+     *
+     * @param random Il generatore, con seme fisso.
+     * @param count Il numero di posizioni.
+     * @return Posizioni con da `MAX_EMPTY` - 2 a `MAX_EMPTY` celle vuote.
+     */
+    static List<BitBoard> positions(Random random, int count) {
+        int cells = BitBoard.ROWS * BitBoard.COLS;
+        List<BitBoard> boards = new ArrayList<>();
+        while (boards.size() < count) {
+            BitBoard board = new BitBoard();
+            int moves = cells - MAX_EMPTY + random.nextInt(3);
+            boolean valid = true;
+            while (valid && board.getMoveCount() < moves) {
+                int playerCode = board.getMoveCount() % 2 == 0 ? 1 : 2;
+                int col = random.nextInt(BitBoard.COLS);
+                if (board.canPlay(col)) {
+                    board.play(col, playerCode);
+                    valid = board.checkForWin(playerCode) == 0;
+                }
+            }
+            if (valid) {
+                boards.add(board);
+            }
+        }
+        return boards;
+    }
+
+    /**
+     * @brief Minimax esaustivo, senza potature né tabelle.
+     *
+     * Chi vince preferisce la vittoria più vicina, chi perde la sconfitta più lontana.
+     *
+     * @param board La posizione (modificata e poi ripristinata), non piena e senza vincitore.
+     * @return Per chi deve muovere `WIN` - n se vince in n mosse, -(`WIN` - n) se perde
+     * in n mosse, 0 se la partita finisce in pareggio.
+     */
+    static int bruteForce(BitBoard board) {
+        int playerCode = board.getMoveCount() % 2 == 0 ? 1 : 2;
+        int best = Integer.MIN_VALUE;
+        for (int col = 0; col < BitBoard.COLS; col++) {
+            if (!board.canPlay(col)) {
+                continue;
+            }
+            board.play(col, playerCode);
+            int value;
+            if (board.checkForWin(playerCode) != 0) {
+                value = WIN - 1;
+            } else if (board.isFull()) {
+                value = 0;
+            } else {
+                // Una mossa in più rispetto al risultato dell'avversario, con il segno opposto
+                int reply = bruteForce(board);
+                value = -(reply - Integer.signum(reply));
+            }
+            board.undo(col);
+            best = Math.max(best, value);
+        }
+        return best;
+    }
+
+    /**
+     * @brief Converte un valore di `bruteForce` nelle mosse che mancano alla fine.
+     *
+     * @param board La posizione valutata.
+     * @param value Il valore restituito da `bruteForce`.
+     * @return Le mosse alla vittoria o alla sconfitta, o a griglia piena per il pareggio.
+     */
+    static int pliesToEnd(BitBoard board, int value) {
+        return value == 0 ? BitBoard.ROWS * BitBoard.COLS - board.getMoveCount() : WIN - Math.abs(value);
+    }
+}
@@ -0,0 +1,126 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class GameGridTest
+ * @brief Verifica che una partita recuperata con il bot di turno riprenda dalla sua mossa.
+ *
+ * Il giornale del salvataggio registra la mossa del giocatore prima della risposta del
+ * bot, quindi una chiusura in quel momento lascia un numero dispari di mosse. Il
+ * salvataggio del test è in una cartella temporanea, impostata con `SAVE_FILE_PROPERTY`
+ * prima che venga creato il `SaveHandler` condiviso.
+ */
+public class GameGridTest {
+
+    private static final int HUMAN_MOVE = 3;  ///< Colonna giocata dal giocatore prima della chiusura.
+    private static final int BOT_MOVE = 4;  ///< Colonna scelta dalla strategia finta del bot.
+    private static final long TIMEOUT_MS = 5000;  ///< Attesa massima della mossa del bot.
+
+    private static Path saveDir;  ///< Cartella temporanea del salvataggio.
+    private static Path saveFile;  ///< Il salvataggio usato da `SaveHandler.getInstance`.
+
+    @BeforeAll
+    public static void setUpSaveFile() throws IOException {
+        saveDir = Files.createTempDirectory("forza4-save");
+        saveFile = saveDir.resolve("save.bin");
+        System.setProperty(SaveHandler.SAVE_FILE_PROPERTY, saveFile.toString());
+    }
+
+    @AfterAll
+    public static void deleteSaveFile() throws IOException {
+        SaveHandler.getInstance().flush();
+        try (Stream<Path> files = Files.list(saveDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(saveDir);
+    }
+
+    @Test
+    public void reloadedOddPlyJournalHasBotToMove() {
+        GameModel reloaded = saveAfterHumanMove();
+        assertEquals(List.of(HUMAN_MOVE), reloaded.getMoves());
+        assertEquals(GameModel.IN_PROGRESS, reloaded.getStatus());
+        assertEquals(new Bot().getPlayerCode(), reloaded.getCurrentPlayer());
+    }
+
+    @Test
+    public void gridPlaysBotMoveAfterReload() throws Exception {
+        saveAfterHumanMove();
+        SaveHandler saveHandler = SaveHandler.getInstance();
+        Strategy strategy = board -> BOT_MOVE;
+
+        GameGrid[] grid = new GameGrid[1];
+        SwingUtilities.invokeAndWait(() -> grid[0] = new GameGrid(new Player(), new Bot(), strategy, new NoMediator()));
+        try {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (saveHandler.getMoves().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(List.of(HUMAN_MOVE, BOT_MOVE), saveHandler.getMoves());
+        } finally {
+            SwingUtilities.invokeAndWait(() -> grid[0].close());
+        }
+    }
+
+    /**
+     * @brief Salva una partita ferma dopo la sola mossa del giocatore e la ricarica dal disco.
+     *
+     * La mossa passa dal giornale, come durante il gioco, e il file viene riletto da un
+     * nuovo `SaveHandler` come a un nuovo avvio.
+     *
+     * @return La partita ricaricata.
+     */
+    private static GameModel saveAfterHumanMove() {
+        SaveHandler saveHandler = SaveHandler.getInstance();
+        saveHandler.clearGame();
+        GameModel model = new GameModel();
+        model.addListener(saveHandler);
+        model.play(HUMAN_MOVE);
+        model.removeListener(saveHandler);
+        saveHandler.flush();
+
+        assertTrue(Files.exists(saveFile.resolveSibling(saveFile.getFileName() + SaveHandler.JOURNAL_SUFFIX)));
+        return new SaveHandler(saveFile.toString()).loadGame();
+    }
+
+    /**
+     * @class NoMediator
+     * @brief Mediatore che ignora ogni richiesta: il test non apre finestre.
+     */
+    private static class NoMediator implements WindowMediator {
+
+        @Override
+        public void showPlayerIdPanel(InterfacePlayer player) {
+        }
+
+        @Override
+        public void showGameModesPanel(InterfacePlayer player) {
+        }
+
+        @Override
+        public void newGame(InterfacePlayer player, InterfacePlayer bot, Strategy strategy) {
+        }
+
+        @Override
+        public void endGame(InterfacePlayer winner) {
+        }
+
+        @Override
+        public void endTieGame() {
+        }
+    }
+}
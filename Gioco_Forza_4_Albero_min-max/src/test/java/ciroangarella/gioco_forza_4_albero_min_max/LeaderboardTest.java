@@ -0,0 +1,223 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class LeaderboardTest
+ * @brief Verifica l'ordine della classifica, le pagine e il salvataggio su file.
+ *
+ * Ogni test usa una classifica nuova in una cartella temporanea, mai quella del gioco.
+ * `concurrentWinsAreCountedExactly` chiama `addWin` da più thread insieme, con un altro
+ * thread che legge la classifica nel frattempo.
+ */
+public class LeaderboardTest {
+
+    private static final int THREADS = 16;  ///< Thread che registrano vittorie insieme.
+    private static final int WINS_PER_THREAD = 20000;  ///< Vittorie registrate da ogni thread.
+    private static final int PLAYERS = 50;  ///< Giocatori tra cui si dividono le vittorie.
+
+    private Path rankDir;  ///< Cartella temporanea della classifica.
+    private Path rankFile;  ///< Il file della classifica.
+    private Leaderboard leaderboard;  ///< La classifica del test.
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        rankDir = Files.createTempDirectory("forza4-rank");
+        rankFile = rankDir.resolve("rank.bin");
+        leaderboard = new Leaderboard(rankFile.toString());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        leaderboard.flush();
+        try (Stream<Path> files = Files.list(rankDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(rankDir);
+    }
+
+    @Test
+    public void rankOrderFollowsUpdates() {
+        addWins("alice", 2);
+        addWins("bob", 1);
+        assertEquals(List.of("alice=2", "bob=1"), entries(leaderboard.top(0, 10)));
+
+        // Bob supera Alice: l'ordine già letto deve cambiare alla lettura successiva
+        addWins("bob", 2);
+        addWins("carol", 1);
+        assertEquals(List.of("bob=3", "alice=2", "carol=1"), entries(leaderboard.top(0, 10)));
+        assertEquals(3, leaderboard.getWins("bob"));
+        assertEquals(0, leaderboard.getWins("dave"));
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    public void tiesAreOrderedById() {
+        addWins("dave", 2);
+        addWins("bob", 2);
+        addWins("carol", 3);
+        addWins("alice", 2);
+        assertEquals(List.of("carol=3", "alice=2", "bob=2", "dave=2"), entries(leaderboard.top(0, 10)));
+
+        // Carol raggiunta a pari vittorie: passa dopo Alice, che viene prima per ID
+        addWins("alice", 1);
+        assertEquals(List.of("alice=3", "carol=3", "bob=2", "dave=2"), entries(leaderboard.top(0, 10)));
+    }
+
+    @Test
+    public void topReturnsPages() {
+        for (int i = 0; i < 10; i++) {
+            addWins("player" + i, 10 - i);
+        }
+        assertEquals(List.of("player0=10", "player1=9", "player2=8"), entries(leaderboard.top(0, 3)));
+        assertEquals(List.of("player3=7", "player4=6", "player5=5"), entries(leaderboard.top(3, 3)));
+        assertEquals(List.of("player9=1"), entries(leaderboard.top(9, 3)));
+        assertTrue(leaderboard.top(10, 3).isEmpty());
+        assertTrue(leaderboard.top(0, 0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.top(-1, 3));
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.addWin(null));
+    }
+
+    @Test
+    public void reloadKeepsWinsAndOrder() {
+        addWins("alice", 2);
+        addWins("bob", 5);
+        addWins("carol", 2);
+        leaderboard.flush();
+
+        Leaderboard reloaded = new Leaderboard(rankFile.toString());
+        assertEquals(List.of("bob=5", "alice=2", "carol=2"), entries(reloaded.top(0, 10)));
+        assertEquals(3, reloaded.addWin("carol"));
+        assertEquals(List.of("bob=5", "carol=3", "alice=2"), entries(reloaded.top(0, 10)));
+        reloaded.flush();
+    }
+
+    @Test
+    public void concurrentWinsAreCountedExactly() throws Exception {
+        // Ogni thread sceglie i vincitori in modo deterministico: i totali attesi sono noti
+        int[] expected = new int[PLAYERS];
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < WINS_PER_THREAD; i++) {
+                expected[winner(t, i)]++;
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicBoolean writing = new AtomicBoolean(true);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < WINS_PER_THREAD; i++) {
+                        leaderboard.addWin("player" + winner(thread, i));
+                    }
+                    return null;
+                }));
+            }
+            // Le letture durante le scritture non devono perdere vittorie né rompere l'ordine
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    assertSorted(leaderboard.top(0, PLAYERS));
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            reader.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Winner> ranking = leaderboard.top(0, PLAYERS);
+        assertEquals(PLAYERS, ranking.size());
+        assertSorted(ranking);
+        long total = 0;
+        for (Winner winner : ranking) {
+            int player = Integer.parseInt(winner.getId().substring("player".length()));
+            assertEquals(expected[player], winner.getWin(), winner.getId());
+            assertEquals(expected[player], leaderboard.getWins(winner.getId()), winner.getId());
+            total += winner.getWin();
+        }
+        assertEquals((long) THREADS * WINS_PER_THREAD, total);
+
+        // Anche il file scritto durante le vittorie deve finire con i totali esatti
+        leaderboard.flush();
+        assertEquals(entries(ranking), entries(new Leaderboard(rankFile.toString()).top(0, PLAYERS)));
+    }
+
+    /**
+     * @brief Sceglie il vincitore della vittoria `i` del thread `thread`.
+     *
+     * @param thread L'indice del thread.
+     * @param i L'indice della vittoria.
+     * @return L'indice del giocatore, con totali diversi tra i giocatori.
+     */
+    private static int winner(int thread, int i) {
+        return (int) (((long) i * i + thread) % PLAYERS);
+    }
+
+    /**
+     * @brief Controlla che una pagina sia in ordine di classifica.
+     *
+     * @param page La pagina della classifica.
+     */
+    private static void assertSorted(List<Winner> page) {
+        for (int i = 1; i < page.size(); i++) {
+            assertTrue(Leaderboard.RANK_ORDER.compare(page.get(i - 1), page.get(i)) < 0,
+                    page.get(i - 1).getId() + " before " + page.get(i).getId());
+        }
+    }
+
+    /**
+     * @brief Registra più vittorie dello stesso giocatore.
+     *
+     * @param id L'ID del giocatore.
+     * @param count Le vittorie da aggiungere.
+     */
+    private void addWins(String id, int count) {
+        for (int i = 0; i < count; i++) {
+            leaderboard.addWin(id);
+        }
+    }
+
+    /**
+     * @brief Riassume una pagina come "id=vittorie", per confronti leggibili.
+     *
+     * @param page La pagina della classifica.
+     * @return Le voci nello stesso ordine.
+     */
+    private static List<String> entries(List<Winner> page) {
+        List<String> entries = new ArrayList<>();
+        for (Winner winner : page) {
+            entries.add(winner.getId() + "=" + winner.getWin());
+        }
+        return entries;
+    }
+}
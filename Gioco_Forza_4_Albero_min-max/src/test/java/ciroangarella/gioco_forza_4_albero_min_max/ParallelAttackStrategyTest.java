@@ -0,0 +1,105 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class ParallelAttackStrategyTest
+ * @brief Verifica che la ricerca parallela scelga la mossa di `AttackStrategy` e che
+ * un'interruzione non restituisca una mossa parziale.
+ */
+public class ParallelAttackStrategyTest {
+
+    private static final long SEED = 20240614L;  ///< Seme delle posizioni di prova.
+    private static final int POSITIONS = 30;  ///< Posizioni confrontate con `AttackStrategy`.
+    private static final int DEPTH = 5;  ///< Profondità di entrambe le strategie.
+    private static final int THREADS = 4;  ///< Thread della strategia parallela.
+
+    private InterfacePlayer player = new Player();  ///< Giocatore umano (codice 1).
+    private InterfacePlayer bot = new Bot();  ///< Giocatore bot (codice 2).
+
+    @Test
+    public void matchesSequentialWithoutBookAndSolver() {
+        ParallelAttackStrategy parallel = new ParallelAttackStrategy(player, bot, THREADS);
+        parallel.setDepth(DEPTH);
+        try {
+            Random random = new Random(SEED);
+            for (int i = 0; i < POSITIONS; i++) {
+                BitBoard board = position(random);
+                AttackStrategy sequential = new AttackStrategy(player, bot, 1);
+                sequential.setDepth(DEPTH);
+                sequential.setOpeningBook(OpeningBook.EMPTY);
+                sequential.setEndgameThreshold(0);
+                assertEquals(sequential.chooseMove(board), parallel.chooseMove(board), "move at hash " + board.getHash());
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void clearedTablesGiveTheFreshMove() {
+        ParallelAttackStrategy parallel = new ParallelAttackStrategy(player, bot, THREADS);
+        parallel.setDepth(DEPTH);
+        try {
+            Random random = new Random(SEED);
+            for (int i = 0; i < POSITIONS; i++) {
+                BitBoard board = position(random);
+                int expected = parallel.chooseMove(board);
+                // Stessa istanza, tabelle svuotate: la mossa non cambia
+                parallel.clearTables();
+                assertEquals(expected, parallel.chooseMove(board), "move at hash " + board.getHash());
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void interruptCancelsTheMove() {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ParallelAttackStrategy parallel = new ParallelAttackStrategy(player, bot, executor);
+        parallel.setDepth(9); // Abbastanza lunga da non finire prima dell'interruzione
+        try {
+            Thread.currentThread().interrupt();
+            assertThrows(CancellationException.class, () -> parallel.chooseMove(BitBoard.fromMoves("3")));
+            assertTrue(Thread.interrupted(), "interrupt flag must be restored");
+        } finally {
+            Thread.interrupted();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @brief Genera una partita casuale senza vincitore, con il bot di turno.
+     *
+     * @param random Il generatore, con seme fisso.
+     * @return La posizione.
+     */
+    private BitBoard position(Random random) {
+        while (true) {
+            BitBoard board = new BitBoard();
+            int plies = 1 + 2 * random.nextInt(12); // Dispari: tocca al bot
+            boolean valid = true;
+            for (int i = 0; i < plies && valid; i++) {
+                int playerCode = i % 2 == 0 ? player.getPlayerCode() : bot.getPlayerCode();
+                int col = random.nextInt(BitBoard.COLS);
+                valid = board.canPlay(col);
+                if (valid) {
+                    board.play(col, playerCode);
+                    valid = board.checkForWin(playerCode) == 0;
+                }
+            }
+            if (valid) {
+                return board;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class PerftTest
+ * @brief Confronta le tre implementazioni di `Perft` con i conteggi noti.
+ *
+ * I conteggi sono stati verificati con un'implementazione indipendente. Dalla griglia
+ * vuota sono 7^n fino a 6 mosse; a 7 mancano le 7 sequenze che riempiono una colonna,
+ * da 8 le partite vinte smettono di ramificare (perft(10) = 268031646 e perft(11) =
+ * 1844590828 richiedono troppo tempo per un test). Le altre due posizioni sono
+ * `BenchmarkPositions.MIDGAME` e `BenchmarkPositions.ENDGAME` del modulo dei benchmark:
+ * nella seconda ogni sequenza finisce con una vittoria entro 12 mosse.
+ */
+public class PerftTest {
+
+    private static final int MODEL_MAX_DEPTH = 6;  ///< Profondità massima controllata con `GameModel`, molto più lento.
+    private static final int THREADS = 4;  ///< Thread della versione parallela.
+
+    private static final String EMPTY = "";  ///< Griglia vuota.
+    private static final String MIDGAME = "54315514532640423";  ///< Metà partita: 17 mosse.
+    private static final String ENDGAME = "226423324324462415034631316";  ///< Fine partita: 27 mosse.
+
+    private static final long[] EMPTY_COUNTS = {1, 7, 49, 343, 2401, 16807, 117649, 823536, 5673234, 39394572};  ///< `perft` dalla griglia vuota.
+    private static final long[] MIDGAME_COUNTS = {1, 7, 49, 341, 2343, 15179, 99416, 591878, 3643349, 19990923};  ///< `perft` da `MIDGAME`.
+    private static final long[] ENDGAME_COUNTS = {1, 4, 16, 59, 186, 538, 1253, 2530, 4248, 5868, 8093, 5506, 2805, 0};  ///< `perft` da `ENDGAME`.
+
+    @Test
+    public void emptyBoard() {
+        check(EMPTY, EMPTY_COUNTS);
+    }
+
+    @Test
+    public void midgame() {
+        check(MIDGAME, MIDGAME_COUNTS);
+    }
+
+    @Test
+    public void endgame() {
+        check(ENDGAME, ENDGAME_COUNTS);
+    }
+
+    /**
+     * @brief Controlla ogni profondità della tabella con tutte le implementazioni.
+     *
+     * `GameModel` viene controllato solo fino a `MODEL_MAX_DEPTH`.
+     *
+     * @param moves La posizione, come colonne giocate a partire dal giocatore.
+     * @param counts I conteggi attesi per profondità 0, 1, 2, ...
+     */
+    private static void check(String moves, long[] counts) {
+        for (int depth = 0; depth < counts.length; depth++) {
+            String position = "'" + moves + "' depth " + depth;
+            assertEquals(counts[depth], Perft.perft(BitBoard.fromMoves(moves), depth), "perft at " + position);
+            assertEquals(counts[depth], Perft.perftParallel(BitBoard.fromMoves(moves), depth, THREADS), "perftParallel at " + position);
+            if (depth <= MODEL_MAX_DEPTH) {
+                assertEquals(counts[depth], Perft.perftModel(moves, depth), "perftModel at " + position);
+            }
+        }
+    }
+}
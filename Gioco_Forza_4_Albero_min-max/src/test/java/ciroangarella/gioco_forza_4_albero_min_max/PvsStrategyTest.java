@@ -0,0 +1,104 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class PvsStrategyTest
+ * @brief Verifica che la PVS con finestre di aspirazione dia lo stesso risultato dell'alfa-beta.
+ *
+ * Le posizioni sono generate con un seme fisso, quindi sono sempre le stesse: partite
+ * casuali senza vincitore, con il bot di turno e senza mosse obbligate (che verrebbero
+ * giocate senza ricerca). Libro delle aperture e risolutore sono disattivati.
+ */
+public class PvsStrategyTest {
+
+    private static final long SEED = 20240611L;  ///< Seme delle posizioni di prova.
+    private static final int POSITIONS = 40;  ///< Numero di posizioni di prova.
+    private static final int MAX_DEPTH = 7;  ///< Profondità massima confrontata.
+
+    private InterfacePlayer player = new Player();  ///< Giocatore umano (codice 1).
+    private InterfacePlayer bot = new Bot();  ///< Giocatore bot (codice 2).
+
+    @Test
+    public void pvsMatchesAlphaBetaScoreAndMove() {
+        List<BitBoard> boards = positions();
+        assertEquals(POSITIONS, boards.size());
+
+        for (BitBoard board : boards) {
+            for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+                // Tabelle nuove: il risultato non deve dipendere dalle posizioni precedenti
+                AttackStrategy alphaBeta = strategy(new AttackStrategy(player, bot, 1), depth);
+                AttackStrategy pvs = strategy(new PvsStrategy(player, bot, 1), depth);
+
+                int expectedMove = alphaBeta.chooseMove(board);
+                int move = pvs.chooseMove(board);
+                String position = board.getMoveCount() + " moves, depth " + depth + ", hash " + board.getHash();
+                assertEquals(alphaBeta.search.getLastScore(), pvs.search.getLastScore(), "score at " + position);
+                assertEquals(expectedMove, move, "move at " + position);
+            }
+        }
+    }
+
+    @Test
+    public void pvsVisitsFewerNodesInTotal() {
+        long alphaBetaNodes = 0;
+        long pvsNodes = 0;
+        for (BitBoard board : positions()) {
+            AttackStrategy alphaBeta = strategy(new AttackStrategy(player, bot, 1), MAX_DEPTH);
+            AttackStrategy pvs = strategy(new PvsStrategy(player, bot, 1), MAX_DEPTH);
+            alphaBeta.chooseMove(board);
+            pvs.chooseMove(board);
+            alphaBetaNodes += alphaBeta.getNodes();
+            pvsNodes += pvs.getNodes();
+        }
+        assertTrue(pvsNodes < alphaBetaNodes, "PVS visited " + pvsNodes + " nodes, alpha-beta " + alphaBetaNodes);
+    }
+
+    /**
+     * @brief Prepara una strategia per cercare a profondità fissa, solo con la ricerca.
+     *
+     * @param strategy La strategia appena creata.
+     * @param depth La profondità.
+     * @return La stessa strategia.
+     */
+    private static AttackStrategy strategy(AttackStrategy strategy, int depth) {
+        strategy.setDepth(depth);
+        strategy.setOpeningBook(OpeningBook.EMPTY);
+        strategy.setEndgameThreshold(0);
+        return strategy;
+    }
+
+    /**
+     * @brief Genera le posizioni di prova dal seme fisso.
+     *
+     * @return `POSITIONS` posizioni con il bot di turno.
+     */
+    private List<BitBoard> positions() {
+        Random random = new Random(SEED);
+        List<BitBoard> boards = new ArrayList<>();
+        while (boards.size() < POSITIONS) {
+            BitBoard board = new BitBoard();
+            int plies = 1 + 2 * random.nextInt(10); // Dispari: tocca al bot
+            boolean valid = true;
+            for (int i = 0; i < plies && valid; i++) {
+                int playerCode = i % 2 == 0 ? player.getPlayerCode() : bot.getPlayerCode();
+                int col = random.nextInt(BitBoard.COLS);
+                valid = board.canPlay(col);
+                if (valid) {
+                    board.play(col, playerCode);
+                    valid = board.checkForWin(playerCode) == 0;
+                }
+            }
+            if (valid && board.forcedMove(bot.getPlayerCode()) < 0) {
+                boards.add(board);
+            }
+        }
+        return boards;
+    }
+}
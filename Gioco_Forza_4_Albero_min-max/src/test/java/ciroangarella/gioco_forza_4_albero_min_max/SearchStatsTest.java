@@ -0,0 +1,95 @@
+package ciroangarella.gioco_forza_4_albero_min_max;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class SearchStatsTest
+ * @brief Verifica che ogni strategia abbia un solo MBean, condiviso dalle partite successive,
+ * e che anche il tasso di successo della tabella si accumuli tra una partita e l'altra.
+ */
+public class SearchStatsTest {
+
+    private MBeanServer server = ManagementFactory.getPlatformMBeanServer();  ///< Server MBean della piattaforma.
+
+    @Test
+    public void sameNameAccumulatesAcrossRegistrations() throws Exception {
+        String name = "SearchStatsTest";
+        SearchStats first = SearchStats.register(name);
+        first.reset();
+        first.recordMove(1_000_000);
+
+        // Una nuova partita con la stessa strategia non deve azzerare i contatori
+        SearchStats second = SearchStats.register(name);
+        second.recordMove(2_000_000);
+
+        assertSame(first, second);
+        assertEquals(2, second.getMovesChosen());
+        assertEquals(2L, server.getAttribute(objectName(name), "MovesChosen"));
+    }
+
+    @Test
+    public void tableHitRateAccumulatesAcrossGames() {
+        SearchStats stats = SearchStats.register("SearchStatsTableTest");
+        stats.reset();
+
+        // Due partite, ognuna con la sua tabella: il tasso è sul totale, non sull'ultima
+        MinMaxSearch first = search("3", 8);
+        stats.recordSearch(1_000_000, first);
+        MinMaxSearch second = search("33243", 6);
+        stats.recordSearch(1_000_000, second);
+
+        long probes = first.getTableProbes() + second.getTableProbes();
+        long hits = first.getTableHits() + second.getTableHits();
+        assertEquals(first.getTable().getProbes(), first.getTableProbes());
+        assertEquals((double) hits / probes, stats.getTableHitRate(), 1e-12);
+        assertEquals(second.getTable().getOccupancy(), stats.getTableOccupancy(), 1e-12);
+
+        stats.reset();
+        assertEquals(0, stats.getTableHitRate());
+        assertEquals(0, stats.getTableOccupancy());
+    }
+
+    @Test
+    public void carefulStrategyHasItsOwnBean() throws Exception {
+        InterfacePlayer player = new Player();
+        InterfacePlayer bot = new Bot();
+        SearchStats attack = new AttackStrategy(player, bot, 1).getSearchStats();
+        new CarefulStrategy(player, bot);
+
+        assertTrue(server.isRegistered(objectName("CarefulStrategy")));
+        assertSame(attack, new AttackStrategy(player, bot, 1).getSearchStats());
+        assertNotSame(attack, SearchStats.register("CarefulStrategy"));
+    }
+
+    /**
+     * @brief Cerca la mossa del bot con una ricerca e una tabella nuove.
+     *
+     * @param moves La posizione, come colonne giocate a partire dal giocatore.
+     * @param depth La profondità della ricerca.
+     * @return La ricerca terminata, con i suoi contatori.
+     */
+    private static MinMaxSearch search(String moves, int depth) {
+        MinMaxSearch search = new MinMaxSearch(1, 2, new TranspositionTable(1));
+        search.start(Long.MAX_VALUE);
+        search.searchRoot(BitBoard.fromMoves(moves), depth, TranspositionTable.NO_MOVE);
+        return search;
+    }
+
+    /**
+     * @brief Costruisce il nome JMX delle statistiche di una strategia.
+     *
+     * @param name Il nome della strategia.
+     * @return Il nome dell'MBean.
+     */
+    private static ObjectName objectName(String name) throws Exception {
+        return new ObjectName(SearchStats.DOMAIN + ":type=SearchStats,name=" + name);
+    }
+}